@@ -0,0 +1,380 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.*;
+
+/**
+ * ME 35401 - Spring Calculator (Batch Mode)
+ *
+ * This program evaluates a CSV or TSV file of spring designs without any GUI. Each input row holds the end type,
+ * material, peen type, wire diameter, outer diameter, free length, solid length, min force, and max force (in that
+ * order). Rows are read in chunks and evaluated on all cores, and the results are written in input order. Only a
+ * bounded number of chunks are in flight at any time, so arbitrarily large files can be streamed. Repeated designs
+ * are answered from a SpringEvaluationCache.
+ *
+ * Results can also be written to a binary SpringResultStore by giving an output file ending in .spr. With
+ * SpringMetrics enabled, the metrics are printed to standard error at the end.
+ *
+ * Usage: java SpringBatchCalculator input.csv output.csv|output.spr [threads]
+ *
+ */
+
+public class SpringBatchCalculator {
+    private static final int CHUNK_SIZE = 4096;
+    private static final int CACHE_SIZE = 1 << 16;
+    private static final long WRITER_POLL_MILLIS = 100;
+
+    private static final SpringEvaluationCache cache = new SpringEvaluationCache(CACHE_SIZE);
+
+    private static final String[] outputColumns =
+            {"ultimateTensileStrength", "yieldStrength", "yieldStrengthShear", "E", "G", "totalCoils",
+                    "activeCoils", "pitch", "springRate", "forceToSolid", "factorOfSafetyAtForceToSolid", "loadCase",
+                    "factorOfSafety"};
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: java SpringBatchCalculator <input.csv|input.tsv> "
+                    + "<output.csv|output.tsv|output.spr> [threads]");
+            System.exit(1);
+        }
+
+        Path inputPath = Path.of(args[0]);
+        Path outputPath = Path.of(args[1]);
+        int threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        long startTime = System.nanoTime();
+        long rows;
+        if (outputPath.getFileName().toString().toLowerCase().endsWith(".spr")) {
+            try (BufferedReader in = Files.newBufferedReader(inputPath, StandardCharsets.UTF_8);
+                 SpringResultStore.Writer out = new SpringResultStore.Writer(outputPath)) {
+                rows = run(in, out, delimiterFor(inputPath), threads);
+            }
+        } else {
+            try (BufferedReader in = Files.newBufferedReader(inputPath, StandardCharsets.UTF_8);
+                 BufferedWriter out = Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8)) {
+                rows = run(in, out, delimiterFor(inputPath), delimiterFor(outputPath), threads);
+            }
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        System.err.printf("Evaluated %d designs in %.3f s (%.0f rows/sec) using %d threads%n", rows, seconds,
+                rows / seconds, threads);
+        System.err.println("Evaluation cache: " + cache.statistics());
+        if (SpringMetrics.ENABLED) {
+            System.err.print(SpringMetrics.export(cache));
+        }
+    }
+
+    /* Streams designs from the reader to the writer, returning the number of rows evaluated */
+    public static long run(BufferedReader in, Writer out, char inputDelimiter, char outputDelimiter, int threads)
+            throws IOException, InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        BlockingQueue<Future<String>> pending = new ArrayBlockingQueue<>(threads * 2);
+        Future<String> endOfInput = CompletableFuture.completedFuture(null);
+
+        // Results are written by a single thread in the order the chunks were submitted
+        FutureTask<Void> writer = new FutureTask<>(() -> {
+            String chunk;
+            while ((chunk = pending.take().get()) != null) {
+                out.write(chunk);
+            }
+            return null;
+        });
+        Thread writerThread = new Thread(writer, "spring-batch-writer");
+        writerThread.start();
+
+        long rows = 0;
+        try {
+            String line = in.readLine();
+            if (line != null && isHeader(line, inputDelimiter)) {
+                out.write(headerFor(line, inputDelimiter, outputDelimiter));
+                line = in.readLine();
+            }
+
+            String[] chunk = new String[CHUNK_SIZE];
+            int size = 0;
+            while (line != null) {
+                if (!line.isBlank()) {
+                    chunk[size++] = line;
+                    if (size == CHUNK_SIZE) {
+                        submit(pending, workers, chunk, size, inputDelimiter, outputDelimiter, writer);
+                        rows += size;
+                        chunk = new String[CHUNK_SIZE];
+                        size = 0;
+                    }
+                }
+                line = in.readLine();
+            }
+            if (size > 0) {
+                submit(pending, workers, chunk, size, inputDelimiter, outputDelimiter, writer);
+                rows += size;
+            }
+        } finally {
+            workers.shutdown();
+            // A failed writer no longer drains the queue, and its failure is reported below
+            if (!writer.isDone()) {
+                enqueue(pending, endOfInput, writer);
+            }
+        }
+
+        try {
+            writer.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to write batch results", e.getCause());
+        }
+        out.flush();
+
+        return rows;
+    }
+
+    /*
+     * Evaluates designs from the reader into a binary result store, returning the number of valid rows stored. Each
+     * worker appends through its own appender, so rows are stored in no particular order. Invalid rows are left out,
+     * and how many were left out is printed to standard error.
+     */
+    public static long run(BufferedReader in, SpringResultStore.Writer out, char inputDelimiter, int threads)
+            throws IOException, InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        BlockingQueue<Future<Integer>> pending = new ArrayBlockingQueue<>(threads * 2);
+        long inputRows = 0;
+        long rows = 0;
+        try {
+            String line = in.readLine();
+            if (line != null && isHeader(line, inputDelimiter)) {
+                line = in.readLine();
+            }
+
+            String[] chunk = new String[CHUNK_SIZE];
+            int size = 0;
+            while (line != null) {
+                if (!line.isBlank()) {
+                    chunk[size++] = line;
+                }
+                line = in.readLine();
+                if ((size == CHUNK_SIZE) || ((line == null) && (size > 0))) {
+                    // Wait for the oldest chunk before queueing another once enough are in flight
+                    if (pending.remainingCapacity() == 0) {
+                        rows += awaitChunk(pending.take());
+                    }
+                    String[] lines = chunk;
+                    int count = size;
+                    pending.put(workers.submit(() -> storeChunk(lines, count, inputDelimiter, out)));
+                    inputRows += count;
+                    chunk = new String[CHUNK_SIZE];
+                    size = 0;
+                }
+            }
+            while (!pending.isEmpty()) {
+                rows += awaitChunk(pending.take());
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        if (rows < inputRows) {
+            System.err.printf("Skipped %d invalid rows, which are not in the result store%n", inputRows - rows);
+        }
+        return rows;
+    }
+
+    private static int awaitChunk(Future<Integer> chunk) throws IOException, InterruptedException {
+        try {
+            return chunk.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to store batch results", e.getCause());
+        }
+    }
+
+    /* Evaluates a chunk of input lines into the calling thread's appender, returning the number of valid rows */
+    private static int storeChunk(String[] lines, int size, char inputDelimiter, SpringResultStore.Writer out)
+            throws IOException {
+        SpringResultStore.Appender appender = out.threadAppender();
+        SpringCalculator.Evaluation result = new SpringCalculator.Evaluation();
+        Design design = new Design();
+        String delimiter = String.valueOf(inputDelimiter);
+        int stored = 0;
+        for (int i = 0; i < size; i++) {
+            String[] fields = lines[i].split(delimiter, -1);
+            for (int j = 0; j < fields.length; j++) {
+                fields[j] = fields[j].trim();
+            }
+            try {
+                design.parse(fields);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            design.evaluate(result);
+            appender.append(design.material, design.endType, design.peened, design.wireDiameter,
+                    design.outerDiameter, design.freeLength, design.solidLength, design.minForce, design.maxForce,
+                    result);
+            stored++;
+        }
+        return stored;
+    }
+
+    /* Queues a chunk for evaluation, blocking while too many chunks are already in flight */
+    private static void submit(BlockingQueue<Future<String>> pending, ExecutorService workers, String[] lines,
+                               int size, char inputDelimiter, char outputDelimiter, Future<Void> writer)
+            throws IOException, InterruptedException {
+        if (writer.isDone()) {
+            throw writerFailure(writer);
+        }
+        enqueue(pending, CompletableFuture.supplyAsync(
+                () -> evaluateChunk(lines, size, inputDelimiter, outputDelimiter), workers), writer);
+    }
+
+    /* Queues a chunk for the writer, giving up with the writer's failure if it stops taking chunks */
+    private static void enqueue(BlockingQueue<Future<String>> pending, Future<String> chunk, Future<Void> writer)
+            throws IOException, InterruptedException {
+        while (!pending.offer(chunk, WRITER_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (writer.isDone()) {
+                chunk.cancel(false);
+                throw writerFailure(writer);
+            }
+        }
+    }
+
+    /* Why a writer that has stopped before the end of the input did so */
+    private static IOException writerFailure(Future<Void> writer) throws InterruptedException {
+        try {
+            writer.get();
+        } catch (ExecutionException e) {
+            return new IOException("Failed to write batch results", e.getCause());
+        } catch (CancellationException e) {
+            return new IOException("Batch writer was cancelled", e);
+        }
+        return new IOException("Batch writer stopped before the input was consumed");
+    }
+
+    /* Evaluates a chunk of input lines and formats them as output lines */
+    private static String evaluateChunk(String[] lines, int size, char inputDelimiter, char outputDelimiter) {
+        StringBuilder builder = new StringBuilder(size * 256);
+        SpringCalculator.Evaluation result = new SpringCalculator.Evaluation();
+        for (int i = 0; i < size; i++) {
+            evaluateLine(lines[i], inputDelimiter, outputDelimiter, builder, result);
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+
+    /* Evaluates one design, echoing the input fields followed by the calculated values */
+    static void evaluateLine(String line, char inputDelimiter, char outputDelimiter, StringBuilder builder,
+                             SpringCalculator.Evaluation result) {
+        String[] fields = line.split(String.valueOf(inputDelimiter), -1);
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = fields[i].trim();
+            if (i > 0) {
+                builder.append(outputDelimiter);
+            }
+            builder.append(fields[i]);
+        }
+
+        try {
+            evaluate(fields, result);
+        } catch (IllegalArgumentException e) {
+            for (int i = 0; i < outputColumns.length; i++) {
+                builder.append(outputDelimiter);
+                if (outputColumns[i].equals("loadCase")) {
+                    builder.append("invalid");
+                }
+            }
+            return;
+        }
+
+        builder.append(outputDelimiter).append(result.ultimateTensileStrength)
+                .append(outputDelimiter).append(result.yieldStrength)
+                .append(outputDelimiter).append(result.yieldStrengthShear)
+                .append(outputDelimiter).append(result.E)
+                .append(outputDelimiter).append(result.G)
+                .append(outputDelimiter).append(result.totalCoils)
+                .append(outputDelimiter).append(result.activeCoils)
+                .append(outputDelimiter).append(result.pitch)
+                .append(outputDelimiter).append(result.springRate)
+                .append(outputDelimiter).append(result.forceToSolid)
+                .append(outputDelimiter).append(result.factorOfSafetyAtForceToSolid)
+                .append(outputDelimiter).append(result.cyclic ? "cyclic" : "static")
+                .append(outputDelimiter).append(result.factorOfSafety);
+    }
+
+    /* Parses one input row and evaluates it into the result */
+    public static SpringCalculator.Evaluation evaluate(String[] fields, SpringCalculator.Evaluation result) {
+        return new Design().parse(fields).evaluate(result);
+    }
+
+    /* One input row, parsed once so it can be both evaluated and stored */
+    private static final class Design {
+        SpringCalculator.EndType endType;
+        SpringCalculator.Material material;
+        boolean peened;
+        double wireDiameter;
+        double outerDiameter;
+        double freeLength;
+        double solidLength;
+        double minForce;
+        double maxForce;
+
+        Design parse(String[] fields) {
+            if (fields.length < 9) {
+                throw new IllegalArgumentException("Expected 9 fields but found " + fields.length);
+            }
+
+            endType = SpringCalculator.EndType.fromDisplayName(fields[0]);
+            if (endType == null) {
+                throw new IllegalArgumentException("Invalid end type: " + fields[0]);
+            }
+            material = SpringCalculator.Material.fromDisplayName(fields[1]);
+            if (material == null) {
+                throw new IllegalArgumentException("Invalid material: " + fields[1]);
+            }
+            peened = parsePeenType(fields[2]);
+            wireDiameter = Double.parseDouble(fields[3]);
+            outerDiameter = Double.parseDouble(fields[4]);
+            freeLength = Double.parseDouble(fields[5]);
+            solidLength = Double.parseDouble(fields[6]);
+            minForce = Double.parseDouble(fields[7]);
+            maxForce = Double.parseDouble(fields[8]);
+            return this;
+        }
+
+        SpringCalculator.Evaluation evaluate(SpringCalculator.Evaluation result) {
+            return cache.evaluate(material, endType, peened, wireDiameter, outerDiameter, freeLength, solidLength,
+                    minForce, maxForce, result);
+        }
+    }
+
+    /* Accepts "Peened"/"Unpeened" as in the GUI, or true/false */
+    static boolean parsePeenType(String peenType) {
+        if (peenType.equalsIgnoreCase("Peened") || peenType.equalsIgnoreCase("true")) {
+            return true;
+        } else if (peenType.equalsIgnoreCase("Unpeened") || peenType.equalsIgnoreCase("false")) {
+            return false;
+        }
+        throw new IllegalArgumentException("Invalid peen type: " + peenType);
+    }
+
+    /* The first line is a header if its wire diameter column is not a number */
+    static boolean isHeader(String line, char delimiter) {
+        String[] fields = line.split(String.valueOf(delimiter), -1);
+        if (fields.length < 4) {
+            return true;
+        }
+        try {
+            Double.parseDouble(fields[3].trim());
+            return false;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private static String headerFor(String inputHeader, char inputDelimiter, char outputDelimiter) {
+        StringBuilder builder = new StringBuilder(inputHeader.replace(inputDelimiter, outputDelimiter));
+        for (String column : outputColumns) {
+            builder.append(outputDelimiter).append(column);
+        }
+        return builder.append('\n').toString();
+    }
+
+    static char delimiterFor(Path path) {
+        return path.getFileName().toString().toLowerCase().endsWith(".tsv") ? '\t' : ',';
+    }
+}
@@ -0,0 +1,227 @@
+/**
+ * ME 35401 - Spring Calculator (Batch Kernel)
+ *
+ * This class evaluates many designs at once from primitive column arrays (structure of arrays). Each column is
+ * processed in a simple counted loop with no branches, calls, or allocation, which the JIT compiles to SIMD
+ * instructions. The formulas are the same as calculateSpringRate, calculateForceToSolid, and the three factor of
+ * safety methods in SpringCalculator, except that powers are written as products, so results agree with the scalar
+ * methods to within a few units in the last place. evaluateScalar runs the same columns through the scalar methods
+ * and fills the stress columns with the scalar methods' formulas.
+ *
+ */
+
+public class SpringBatchKernel {
+    /* Column storage for a batch of designs */
+    public static final class Batch {
+        // Inputs
+        public final double[] wireDiameter;
+        public final double[] coilDiameter;
+        public final double[] activeCoils;
+        public final double[] G;
+        public final double[] ultimateTensileStrength;
+        public final double[] yieldStrengthShear;
+        public final double[] enduranceStrengthShear;
+        public final double[] freeLength;
+        public final double[] solidLength;
+        public final double[] minForce;
+        public final double[] maxForce;
+        public final boolean[] peened;
+
+        // Outputs
+        public final double[] springRate;
+        public final double[] bergstrasserFactor;
+        public final double[] shearStressPerForce;
+        public final double[] forceToSolid;
+        public final double[] shearStressAtForceToSolid;
+        public final double[] shearStressAmplitude;
+        public final double[] shearStressMean;
+        public final double[] factorOfSafetyAtForceToSolid;
+        public final double[] staticFactorOfSafety;
+        public final double[] fatigueFactorOfSafety;
+
+        public int size;
+
+        public Batch(int capacity) {
+            wireDiameter = new double[capacity];
+            coilDiameter = new double[capacity];
+            activeCoils = new double[capacity];
+            G = new double[capacity];
+            ultimateTensileStrength = new double[capacity];
+            yieldStrengthShear = new double[capacity];
+            enduranceStrengthShear = new double[capacity];
+            freeLength = new double[capacity];
+            solidLength = new double[capacity];
+            minForce = new double[capacity];
+            maxForce = new double[capacity];
+            peened = new boolean[capacity];
+
+            springRate = new double[capacity];
+            bergstrasserFactor = new double[capacity];
+            shearStressPerForce = new double[capacity];
+            forceToSolid = new double[capacity];
+            shearStressAtForceToSolid = new double[capacity];
+            shearStressAmplitude = new double[capacity];
+            shearStressMean = new double[capacity];
+            factorOfSafetyAtForceToSolid = new double[capacity];
+            staticFactorOfSafety = new double[capacity];
+            fatigueFactorOfSafety = new double[capacity];
+        }
+
+        public int capacity() {
+            return wireDiameter.length;
+        }
+
+        /* Appends one design's inputs, calculating the material and dimensional columns it needs */
+        public void add(SpringCalculator.Material material, SpringCalculator.EndType endType, boolean peened,
+                        double wireDiameter, double outerDiameter, double freeLength, double solidLength,
+                        double minForce, double maxForce) {
+            if (size == capacity()) {
+                throw new IllegalStateException("Batch is full: " + size + " designs");
+            }
+            int i = size++;
+            double ultimateTensileStrength = material.ultimateTensileStrength(wireDiameter);
+
+            this.wireDiameter[i] = wireDiameter;
+            this.coilDiameter[i] = outerDiameter - wireDiameter;
+            this.activeCoils[i] = endType.activeCoils(endType.totalCoils(wireDiameter, solidLength));
+            this.G[i] = material.modulusOfRigidity(wireDiameter);
+            this.ultimateTensileStrength[i] = ultimateTensileStrength;
+            this.yieldStrengthShear[i] = material.shearYieldRatio * ultimateTensileStrength;
+            this.enduranceStrengthShear[i] = enduranceStrengthShear(ultimateTensileStrength, peened);
+            this.freeLength[i] = freeLength;
+            this.solidLength[i] = solidLength;
+            this.minForce[i] = minForce;
+            this.maxForce[i] = maxForce;
+            this.peened[i] = peened;
+        }
+
+        public void clear() {
+            size = 0;
+        }
+    }
+
+    /* Calculates Sse (psi) with the Zimmerli data used by calculateFatigueFactorOfSafety */
+    public static double enduranceStrengthShear(double ultimateTensileStrength, boolean peened) {
+        double Ssu = 0.67 * ultimateTensileStrength;
+        if (peened) {
+            return (57.5 * 1000) / (1 - ((77.5 * 1000) / (Ssu)));
+        } else {
+            return (35 * 1000) / (1 - ((55 * 1000) / (Ssu)));
+        }
+    }
+
+    /* Calculates every output column of the batch */
+    public static void evaluate(Batch batch) {
+        int size = batch.size;
+        calculateSpringRates(batch.wireDiameter, batch.G, batch.coilDiameter, batch.activeCoils, batch.springRate,
+                size);
+        calculateShearStressFactors(batch.wireDiameter, batch.coilDiameter, batch.bergstrasserFactor,
+                batch.shearStressPerForce, size);
+        calculateStaticFactorsOfSafety(batch, size);
+        calculateFatigueFactorsOfSafety(batch, size);
+    }
+
+    /* Calculates k (lbf/in) = d^4 G / (8 D^3 Na) */
+    private static void calculateSpringRates(double[] wireDiameter, double[] G, double[] coilDiameter,
+                                             double[] activeCoils, double[] springRate, int size) {
+        for (int i = 0; i < size; i++) {
+            double d = wireDiameter[i];
+            double D = coilDiameter[i];
+            double d2 = d * d;
+            springRate[i] = (d2 * d2 * G[i]) / (8 * (D * D * D) * activeCoils[i]);
+        }
+    }
+
+    /* Calculates the Bergstrasser factor and shear stress per unit force, KB 8 D / (pi d^3) */
+    private static void calculateShearStressFactors(double[] wireDiameter, double[] coilDiameter,
+                                                    double[] bergstrasserFactor, double[] shearStressPerForce,
+                                                    int size) {
+        for (int i = 0; i < size; i++) {
+            double d = wireDiameter[i];
+            double D = coilDiameter[i];
+            double springIndex = D / d;
+            double factor = ((4 * springIndex) + 2) / ((4 * springIndex) - 3);
+            bergstrasserFactor[i] = factor;
+            shearStressPerForce[i] = factor * ((8 * D) / (Math.PI * (d * d * d)));
+        }
+    }
+
+    /* Calculates F at solid length and the factors of safety for static yielding at solid length and static load */
+    private static void calculateStaticFactorsOfSafety(Batch batch, int size) {
+        double[] springRate = batch.springRate;
+        double[] freeLength = batch.freeLength;
+        double[] solidLength = batch.solidLength;
+        double[] shearStressPerForce = batch.shearStressPerForce;
+        double[] yieldStrengthShear = batch.yieldStrengthShear;
+        double[] minForce = batch.minForce;
+        double[] forceToSolid = batch.forceToSolid;
+        double[] shearStressAtForceToSolid = batch.shearStressAtForceToSolid;
+        double[] factorOfSafetyAtForceToSolid = batch.factorOfSafetyAtForceToSolid;
+        double[] staticFactorOfSafety = batch.staticFactorOfSafety;
+
+        for (int i = 0; i < size; i++) {
+            double force = springRate[i] * (freeLength[i] - solidLength[i]);
+            double shearStress = shearStressPerForce[i] * force;
+            forceToSolid[i] = force;
+            shearStressAtForceToSolid[i] = shearStress;
+            factorOfSafetyAtForceToSolid[i] = yieldStrengthShear[i] / shearStress;
+            staticFactorOfSafety[i] = yieldStrengthShear[i] / (shearStressPerForce[i] * minForce[i]);
+        }
+    }
+
+    /* Calculates the shear stress amplitude and mean and the factor of safety for infinite life */
+    private static void calculateFatigueFactorsOfSafety(Batch batch, int size) {
+        double[] shearStressPerForce = batch.shearStressPerForce;
+        double[] minForce = batch.minForce;
+        double[] maxForce = batch.maxForce;
+        double[] ultimateTensileStrength = batch.ultimateTensileStrength;
+        double[] enduranceStrengthShear = batch.enduranceStrengthShear;
+        double[] shearStressAmplitude = batch.shearStressAmplitude;
+        double[] shearStressMean = batch.shearStressMean;
+        double[] fatigueFactorOfSafety = batch.fatigueFactorOfSafety;
+
+        for (int i = 0; i < size; i++) {
+            double amplitude = shearStressPerForce[i] * ((maxForce[i] - minForce[i]) / 2);
+            double mean = shearStressPerForce[i] * ((maxForce[i] + minForce[i]) / 2);
+            double Ssu = 0.67 * ultimateTensileStrength[i];
+            shearStressAmplitude[i] = amplitude;
+            shearStressMean[i] = mean;
+            fatigueFactorOfSafety[i] = 1 / ((amplitude / enduranceStrengthShear[i]) + (mean / Ssu));
+        }
+    }
+
+    /*
+     * Calculates every output column row by row with the scalar methods in SpringCalculator. The scalar methods do
+     * not return their intermediate stresses, so those columns are calculated with the same formulas here. The
+     * fatigue method derives Sse itself from the peened column.
+     */
+    public static void evaluateScalar(Batch batch) {
+        for (int i = 0; i < batch.size; i++) {
+            double wireDiameter = batch.wireDiameter[i];
+            double coilDiameter = batch.coilDiameter[i];
+            double springRate = SpringCalculator.calculateSpringRate(wireDiameter, batch.G[i], coilDiameter,
+                    batch.activeCoils[i]);
+            double forceToSolid = SpringCalculator.calculateForceToSolid(springRate, batch.freeLength[i],
+                    batch.solidLength[i]);
+            double springIndex = coilDiameter / wireDiameter;
+            double bergstrasserFactor = ((4 * springIndex) + 2) / ((4 * springIndex) - 3);
+            double shearStressPerForce = bergstrasserFactor
+                    * ((8 * coilDiameter) / (Math.PI * Math.pow(wireDiameter, 3)));
+
+            batch.springRate[i] = springRate;
+            batch.bergstrasserFactor[i] = bergstrasserFactor;
+            batch.shearStressPerForce[i] = shearStressPerForce;
+            batch.forceToSolid[i] = forceToSolid;
+            batch.shearStressAtForceToSolid[i] = shearStressPerForce * forceToSolid;
+            batch.shearStressAmplitude[i] = shearStressPerForce * ((batch.maxForce[i] - batch.minForce[i]) / 2);
+            batch.shearStressMean[i] = shearStressPerForce * ((batch.maxForce[i] + batch.minForce[i]) / 2);
+            batch.factorOfSafetyAtForceToSolid[i] = SpringCalculator.calculateFactorOfSafetyAtForceToSolid(
+                    forceToSolid, batch.yieldStrengthShear[i], coilDiameter, wireDiameter);
+            batch.staticFactorOfSafety[i] = SpringCalculator.calculateStaticFactorOfSafety(batch.minForce[i],
+                    batch.yieldStrengthShear[i], coilDiameter, wireDiameter);
+            batch.fatigueFactorOfSafety[i] = SpringCalculator.calculateFatigueFactorOfSafety(coilDiameter,
+                    wireDiameter, batch.minForce[i], batch.maxForce[i], batch.ultimateTensileStrength[i],
+                    batch.peened[i]);
+        }
+    }
+}
@@ -1,4 +1,7 @@
 import javax.swing.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * ME 35401 - Spring Calculator
@@ -15,15 +18,18 @@ import javax.swing.*;
  */
 
 public class SpringCalculator {
-    private static final String[] endTypeOptions =
+    static final String[] endTypeOptions =
             {"Plain", "Plain and ground", "Squared or closed", "Squared and ground"};
 
-    private static final String[] materialTypeOptions =
+    static final String[] materialTypeOptions =
             {"Music wire (ASTM No. A228)", "Hard-drawn wire (ASTM No. A227)", "Chrome-vanadium wire (ASTM No. A232)",
                     "Chrome-silicon wire (ASTM No. A401)", "302 stainless wire (ASTM No. A313)",
                     "Phosphor-bronze wire (ASTM No. B159)"};
 
-    private static final String[] peenTypeOptions = {"Peened", "Unpeened"};
+    static final String[] peenTypeOptions = {"Peened", "Unpeened"};
+
+    // Acceleration of gravity (in/s^2)
+    public static final double GRAVITY = 386;
 
     public static void main(String[] args) {
         // Receive input from the user with a simple GUI
@@ -74,144 +80,34 @@ public class SpringCalculator {
         }
     }
 
-    /* Calculates Sut (psi), Sy (psi), Sys (psi), E (psi), and G(psi)) */
+    /* Calculates Sut (psi), Sy (psi), Sys (psi), E (psi), G(psi), and weight density (lbf/in^3)) */
     public static double[] calculateMaterialInfo(String material, double wireDiameter) {
-        double A = 0;
-        double m = 0;
-        double ultimateTensileStrength = 0;
-        double yieldStrength = 0;
-        double yieldStrengthShear = 0;
-        double E = 0;
-        double G = 0;
-
-        switch (material) {
-            case "Music wire (ASTM No. A228)" -> {
-                A = 201;
-                m = 0.145;
-                ultimateTensileStrength = (A / (Math.pow(wireDiameter, m))) * 1000;
-                yieldStrength = 0.65 * ultimateTensileStrength;
-                yieldStrengthShear = 0.45 * ultimateTensileStrength;
-                if (wireDiameter <= 0.032) {
-                    E = 29.5 * 1000000;
-                    G = 12.0 * 1000000;
-                } else if (wireDiameter > 0.032 && wireDiameter <= 0.063) {
-                    E = 29.0 * 1000000;
-                    G = 11.85 * 1000000;
-                } else if (wireDiameter > 0.063 && wireDiameter <= 0.125) {
-                    E = 28.5 * 1000000;
-                    G = 11.75 * 1000000;
-                } else if (wireDiameter > 0.125) {
-                    E = 28.0 * 1000000;
-                    G = 11.6 * 1000000;
-                }
-            }
-            case "Hard-drawn wire (ASTM No. A227)" -> {
-                A = 140;
-                m = 0.190;
-                ultimateTensileStrength = (A / (Math.pow(wireDiameter, m))) * 1000;
-                yieldStrength = 0.6 * ultimateTensileStrength;
-                yieldStrengthShear = 0.45 * ultimateTensileStrength;
-                if (wireDiameter <= 0.032) {
-                    E = 28.8 * 1000000;
-                    G = 11.7 * 1000000;
-                } else if (wireDiameter > 0.032 && wireDiameter <= 0.063) {
-                    E = 28.7 * 1000000;
-                    G = 11.6 * 1000000;
-                } else if (wireDiameter > 0.063 && wireDiameter <= 0.125) {
-                    E = 28.6 * 1000000;
-                    G = 11.5 * 1000000;
-                } else if (wireDiameter > 0.125) {
-                    E = 28.5 * 1000000;
-                    G = 11.4 * 1000000;
-                }
-            }
-            case "Chrome-vanadium wire (ASTM No. A232)" -> {
-                A = 169;
-                m = 0.168;
-                ultimateTensileStrength = (A / (Math.pow(wireDiameter, m))) * 1000;
-                yieldStrength = 0.88 * ultimateTensileStrength;
-                yieldStrengthShear = 0.65 * ultimateTensileStrength;
-                E = 29.5 * 1000000;
-                G = 11.2 * 1000000;
-            }
-            case "Chrome-silicon wire (ASTM No. A401)" -> {
-                A = 202;
-                m = 0.108;
-                ultimateTensileStrength = (A / (Math.pow(wireDiameter, m))) * 1000;
-                yieldStrength = 0.85 * ultimateTensileStrength;
-                yieldStrengthShear = 0.65 * ultimateTensileStrength;
-                E = 29.5 * 1000000;
-                G = 11.2 * 1000000;
-            }
-            case "302 stainless wire (ASTM No. A313)" -> {
-                if (wireDiameter > 0.013 && wireDiameter <= 0.1) {
-                    A = 169;
-                    m = 0.146;
-                } else if (wireDiameter > 0.1 && wireDiameter <= 0.2) {
-                    A = 128;
-                    m = 0.263;
-                } else if (wireDiameter > 0.2 && wireDiameter <= 0.4) {
-                    A = 90;
-                    m = 0.478;
-                }
-                ultimateTensileStrength = (A / (Math.pow(wireDiameter, m))) * 1000;
-                yieldStrength = 0.65 * ultimateTensileStrength;
-                yieldStrengthShear = 0.45 * ultimateTensileStrength;
-                E = 28.0 * 1000000;
-                G = 10.0 * 1000000;
-            }
-            case "Phosphor-bronze wire (ASTM No. B159)" -> {
-                if (wireDiameter > 0.004 && wireDiameter <= 0.022) {
-                    A = 145;
-                    m = 0;
-                } else if (wireDiameter > 0.022 && wireDiameter <= 0.075) {
-                    A = 121;
-                    m = 0.028;
-                } else if (wireDiameter > 0.075 && wireDiameter <= 0.3) {
-                    A = 110;
-                    m = 0.064;
-                }
-                ultimateTensileStrength = (A / (Math.pow(wireDiameter, m))) * 1000;
-                yieldStrength = 0.75 * ultimateTensileStrength;
-                yieldStrengthShear = 0.45 * ultimateTensileStrength;
-                E = 15.0 * 1000000;
-                G = 6.0 * 1000000;
-            }
+        Material type = Material.fromDisplayName(material);
+        if (type == null) {
+            return new double[6];
         }
 
-        return new double[] {ultimateTensileStrength, yieldStrength, yieldStrengthShear, E, G};
+        double ultimateTensileStrength = type.ultimateTensileStrength(wireDiameter);
+        double yieldStrength = type.yieldRatio * ultimateTensileStrength;
+        double yieldStrengthShear = type.shearYieldRatio * ultimateTensileStrength;
+        double E = type.modulusOfElasticity(wireDiameter);
+        double G = type.modulusOfRigidity(wireDiameter);
+
+        return new double[] {ultimateTensileStrength, yieldStrength, yieldStrengthShear, E, G, type.density};
     }
 
     /* Calculates Nt (coils), Na (coils), and p (in)) */
     public static double[] calculateDimensionalInfo(String endType, double wireDiameter,
                                                     double freeLength, double solidLength) {
-        double totalCoils = 0;
-        double activeCoils = 0;
-        double pitch = 0;
-
-        switch (endType) {
-            case "Plain" -> {
-                totalCoils = (solidLength / wireDiameter) - 1;
-                activeCoils = totalCoils;
-                pitch = (freeLength - wireDiameter) / activeCoils;
-            }
-            case "Plain and ground" -> {
-                totalCoils = solidLength / wireDiameter;
-                activeCoils = totalCoils - 1;
-                pitch = freeLength / (activeCoils + 1);
-            }
-            case "Squared or closed" -> {
-                totalCoils = (solidLength / wireDiameter) - 1;
-                activeCoils = totalCoils - 2;
-                pitch = (freeLength - (3 * wireDiameter)) / activeCoils;
-            }
-            case "Squared and ground" -> {
-                totalCoils = solidLength / wireDiameter;
-                activeCoils = totalCoils - 2;
-                pitch = (freeLength - (2 * wireDiameter)) / activeCoils;
-            }
+        EndType type = EndType.fromDisplayName(endType);
+        if (type == null) {
+            return new double[3];
         }
 
+        double totalCoils = type.totalCoils(wireDiameter, solidLength);
+        double activeCoils = type.activeCoils(totalCoils);
+        double pitch = type.pitch(wireDiameter, freeLength, activeCoils);
+
         return new double[] {totalCoils, activeCoils, pitch};
     }
 
@@ -221,6 +117,17 @@ public class SpringCalculator {
         return (Math.pow(wireDiameter, 4) * G) / (8 * Math.pow(coilDiameter, 3) * activeCoils);
     }
 
+    /* Calculates W (lbf), the weight of the active coils */
+    public static double calculateSpringWeight(double wireDiameter, double coilDiameter, double activeCoils,
+                                               double density) {
+        return (Math.PI * Math.PI * wireDiameter * wireDiameter * coilDiameter * activeCoils * density) / 4;
+    }
+
+    /* Calculates the fundamental surge frequency f (Hz) of a spring held between two flat plates */
+    public static double calculateSurgeFrequency(double springRate, double springWeight) {
+        return 0.5 * Math.sqrt((springRate * GRAVITY) / springWeight);
+    }
+
     /* Calculates F (lbf) with a deflection of (Lo - Ls) */
     public static double calculateForceToSolid(double springRate, double freeLength, double solidLength) {
         return springRate * (freeLength - solidLength);
@@ -270,6 +177,357 @@ public class SpringCalculator {
         return 1 / ((shearStressAmplitude / Sse) + (shearStressMean / Ssu));
     }
 
+    /*
+     * Calculates every value shown by the final values dialogs into a caller-owned result, so repeated evaluations
+     * allocate nothing. The coil diameter is taken as the outer diameter minus the wire diameter, and the load is
+     * treated as cyclic when the min and max forces differ, both as in main.
+     */
+    public static Evaluation evaluate(Material material, EndType endType, boolean peened, double wireDiameter,
+                                      double outerDiameter, double freeLength, double solidLength, double minForce,
+                                      double maxForce, Evaluation result) {
+        return evaluate(LoadCase.of(minForce, maxForce), material, endType, peened, wireDiameter, outerDiameter,
+                freeLength, solidLength, minForce, maxForce, result);
+    }
+
+    /* Finishes evaluate from the material values (Sut, Sy, Sys, E, and G) already in the result */
+    public static Evaluation evaluateWithMaterial(EndType endType, boolean peened, double wireDiameter,
+                                                  double outerDiameter, double freeLength, double solidLength,
+                                                  double minForce, double maxForce, Evaluation result) {
+        return evaluateWithMaterial(LoadCase.of(minForce, maxForce), endType, peened, wireDiameter, outerDiameter,
+                freeLength, solidLength, minForce, maxForce, result);
+    }
+
+    /* Same as evaluate, for callers that choose the load case once for many designs with the same forces */
+    public static Evaluation evaluate(LoadCase loadCase, Material material, EndType endType, boolean peened,
+                                      double wireDiameter, double outerDiameter, double freeLength,
+                                      double solidLength, double minForce, double maxForce, Evaluation result) {
+        evaluateMaterial(material, wireDiameter, result);
+        return evaluateWithMaterial(loadCase, endType, peened, wireDiameter, outerDiameter, freeLength, solidLength,
+                minForce, maxForce, result);
+    }
+
+    public static Evaluation evaluateWithMaterial(LoadCase loadCase, EndType endType, boolean peened,
+                                                  double wireDiameter, double outerDiameter, double freeLength,
+                                                  double solidLength, double minForce, double maxForce,
+                                                  Evaluation result) {
+        evaluateDimensions(endType, wireDiameter, freeLength, solidLength, result);
+        return evaluateStresses(loadCase, peened, wireDiameter, outerDiameter - wireDiameter, freeLength,
+                solidLength, minForce, maxForce, result);
+    }
+
+    /* Same values as calculateMaterialInfo (Sut, Sy, Sys, E, and G), into the result */
+    public static Evaluation evaluateMaterial(Material material, double wireDiameter, Evaluation result) {
+        result.ultimateTensileStrength = material.ultimateTensileStrength(wireDiameter);
+        result.yieldStrength = material.yieldRatio * result.ultimateTensileStrength;
+        result.yieldStrengthShear = material.shearYieldRatio * result.ultimateTensileStrength;
+        result.E = material.modulusOfElasticity(wireDiameter);
+        result.G = material.modulusOfRigidity(wireDiameter);
+        return result;
+    }
+
+    /* Same values as calculateDimensionalInfo (Nt, Na, and p), into the result */
+    public static Evaluation evaluateDimensions(EndType endType, double wireDiameter, double freeLength,
+                                                double solidLength, Evaluation result) {
+        result.totalCoils = endType.totalCoils(wireDiameter, solidLength);
+        result.activeCoils = endType.activeCoils(result.totalCoils);
+        result.pitch = endType.pitch(wireDiameter, freeLength, result.activeCoils);
+        return result;
+    }
+
+    /*
+     * Fused form of calculateSpringRate through calculateFatigueFactorOfSafety, using the G, Na, Sut, and Sys already
+     * in the result. The spring index, Bergstrasser factor, and d^3 are calculated once and shared by every stress,
+     * and powers are taken by multiplication, so results can differ from the separate methods in the last few bits.
+     */
+    public static Evaluation evaluateStresses(LoadCase loadCase, boolean peened, double wireDiameter,
+                                              double coilDiameter, double freeLength, double solidLength,
+                                              double minForce, double maxForce, Evaluation result) {
+        double wireDiameterSquared = wireDiameter * wireDiameter;
+        double wireDiameterCubed = wireDiameterSquared * wireDiameter;
+        result.springRate = (wireDiameterSquared * wireDiameterSquared * result.G)
+                / (8 * coilDiameter * coilDiameter * coilDiameter * result.activeCoils);
+        result.forceToSolid = result.springRate * (freeLength - solidLength);
+
+        result.springIndex = coilDiameter / wireDiameter;
+        result.bergstrasserFactor = ((4 * result.springIndex) + 2) / ((4 * result.springIndex) - 3);
+        double shearStressPerForce = (result.bergstrasserFactor * 8 * coilDiameter) / (Math.PI * wireDiameterCubed);
+        result.shearStressAtForceToSolid = shearStressPerForce * result.forceToSolid;
+        result.factorOfSafetyAtForceToSolid = result.yieldStrengthShear / result.shearStressAtForceToSolid;
+
+        result.cyclic = loadCase == LoadCase.CYCLIC;
+        result.factorOfSafety = loadCase.factorOfSafety(shearStressPerForce, minForce, maxForce, peened, result);
+        return result;
+    }
+
+    /**
+     * How the load is treated: cyclic when the min and max forces differ, as in main, and static otherwise. Choosing
+     * it once for a load lets every design evaluated under that load skip the comparison.
+     */
+    public enum LoadCase {
+        STATIC {
+            @Override
+            double factorOfSafety(double shearStressPerForce, double minForce, double maxForce, boolean peened,
+                                  Evaluation result) {
+                result.shearStressAmplitude = 0;
+                result.shearStressMean = shearStressPerForce * minForce;
+                return result.yieldStrengthShear / result.shearStressMean;
+            }
+        },
+        CYCLIC {
+            @Override
+            double factorOfSafety(double shearStressPerForce, double minForce, double maxForce, boolean peened,
+                                  Evaluation result) {
+                result.shearStressAmplitude = shearStressPerForce * ((maxForce - minForce) / 2);
+                result.shearStressMean = shearStressPerForce * ((maxForce + minForce) / 2);
+                double Ssu = 0.67 * result.ultimateTensileStrength;
+                double Sse = peened ? (57.5 * 1000) / (1 - ((77.5 * 1000) / Ssu))
+                        : (35 * 1000) / (1 - ((55 * 1000) / Ssu));
+                return 1 / ((result.shearStressAmplitude / Sse) + (result.shearStressMean / Ssu));
+            }
+        };
+
+        public static LoadCase of(double minForce, double maxForce) {
+            return (Math.abs(maxForce - minForce) >= 0.000001d) ? CYCLIC : STATIC;
+        }
+
+        /* Sets the stress amplitude and mean (psi) in the result and returns the factor of safety for the load */
+        abstract double factorOfSafety(double shearStressPerForce, double minForce, double maxForce, boolean peened,
+                                       Evaluation result);
+    }
+
+    /* Reusable holder for every value calculated by evaluate */
+    public static final class Evaluation {
+        public double ultimateTensileStrength;
+        public double yieldStrength;
+        public double yieldStrengthShear;
+        public double E;
+        public double G;
+        public double totalCoils;
+        public double activeCoils;
+        public double pitch;
+        public double springRate;
+        public double forceToSolid;
+        public double factorOfSafetyAtForceToSolid;
+        public double factorOfSafety;
+        public boolean cyclic;
+        public double springIndex;
+        public double bergstrasserFactor;
+        public double shearStressAtForceToSolid;
+        public double shearStressAmplitude;
+        public double shearStressMean;
+    }
+
+    /**
+     * Spring wire materials with the A/m, Sy/Sut, Sys/Sut, E, G, and weight density tables used by
+     * calculateMaterialInfo. Each band covers (lower bound, upper bound] of wire diameter (in) and is found by binary
+     * search. Wire diameters outside every strength band have no strength (A = 0), and Sut is precomputed for the
+     * standard wire diameters.
+     */
+    public enum Material {
+        MUSIC_WIRE("Music wire (ASTM No. A228)", 0.65, 0.45,
+                null, new double[] {201}, new double[] {0.145},
+                new double[] {Double.NEGATIVE_INFINITY, 0.032, 0.063, 0.125, Double.POSITIVE_INFINITY},
+                new double[] {29.5 * 1000000, 29.0 * 1000000, 28.5 * 1000000, 28.0 * 1000000},
+                new double[] {12.0 * 1000000, 11.85 * 1000000, 11.75 * 1000000, 11.6 * 1000000}, 0.284),
+        HARD_DRAWN_WIRE("Hard-drawn wire (ASTM No. A227)", 0.6, 0.45,
+                null, new double[] {140}, new double[] {0.190},
+                new double[] {Double.NEGATIVE_INFINITY, 0.032, 0.063, 0.125, Double.POSITIVE_INFINITY},
+                new double[] {28.8 * 1000000, 28.7 * 1000000, 28.6 * 1000000, 28.5 * 1000000},
+                new double[] {11.7 * 1000000, 11.6 * 1000000, 11.5 * 1000000, 11.4 * 1000000}, 0.284),
+        CHROME_VANADIUM_WIRE("Chrome-vanadium wire (ASTM No. A232)", 0.88, 0.65,
+                null, new double[] {169}, new double[] {0.168},
+                null, new double[] {29.5 * 1000000}, new double[] {11.2 * 1000000}, 0.284),
+        CHROME_SILICON_WIRE("Chrome-silicon wire (ASTM No. A401)", 0.85, 0.65,
+                null, new double[] {202}, new double[] {0.108},
+                null, new double[] {29.5 * 1000000}, new double[] {11.2 * 1000000}, 0.284),
+        STAINLESS_302_WIRE("302 stainless wire (ASTM No. A313)", 0.65, 0.45,
+                new double[] {0.013, 0.1, 0.2, 0.4}, new double[] {169, 128, 90}, new double[] {0.146, 0.263, 0.478},
+                null, new double[] {28.0 * 1000000}, new double[] {10.0 * 1000000}, 0.286),
+        PHOSPHOR_BRONZE_WIRE("Phosphor-bronze wire (ASTM No. B159)", 0.75, 0.45,
+                new double[] {0.004, 0.022, 0.075, 0.3}, new double[] {145, 121, 110}, new double[] {0, 0.028, 0.064},
+                null, new double[] {15.0 * 1000000}, new double[] {6.0 * 1000000}, 0.320);
+
+        /* Preferred wire diameters (in) from Shigley's Mechanical Engineering Design */
+        private static final double[] STANDARD_WIRE_DIAMETERS =
+                {0.004, 0.005, 0.006, 0.008, 0.010, 0.012, 0.014, 0.016, 0.018, 0.020, 0.022, 0.024, 0.026, 0.028,
+                        0.030, 0.035, 0.038, 0.042, 0.045, 0.048, 0.051, 0.055, 0.059, 0.063, 0.067, 0.072, 0.076,
+                        0.081, 0.085, 0.092, 0.098, 0.105, 0.112, 0.125, 0.135, 0.148, 0.162, 0.177, 0.192, 0.207,
+                        0.225, 0.250, 0.281, 0.312, 0.343, 0.362, 0.375, 0.406, 0.437, 0.469, 0.500, 0.531, 0.562,
+                        0.625};
+
+        private static final Map<String, Material> byDisplayName = new HashMap<>();
+
+        static {
+            for (Material material : values()) {
+                byDisplayName.put(material.displayName, material);
+                material.standardUltimateTensileStrengths = new double[STANDARD_WIRE_DIAMETERS.length];
+                for (int i = 0; i < STANDARD_WIRE_DIAMETERS.length; i++) {
+                    material.standardUltimateTensileStrengths[i] =
+                            material.calculateUltimateTensileStrength(STANDARD_WIRE_DIAMETERS[i]);
+                }
+            }
+        }
+
+        public final String displayName;
+        public final double yieldRatio;
+        public final double shearYieldRatio;
+        // Weight density (lbf/in^3)
+        public final double density;
+        private final double[] strengthBounds;
+        private final double[] A;
+        private final double[] m;
+        private final double[] modulusBounds;
+        private final double[] E;
+        private final double[] G;
+        private double[] standardUltimateTensileStrengths;
+
+        Material(String displayName, double yieldRatio, double shearYieldRatio, double[] strengthBounds, double[] A,
+                 double[] m, double[] modulusBounds, double[] E, double[] G, double density) {
+            this.displayName = displayName;
+            this.yieldRatio = yieldRatio;
+            this.shearYieldRatio = shearYieldRatio;
+            this.density = density;
+            this.strengthBounds = strengthBounds;
+            this.A = A;
+            this.m = m;
+            this.modulusBounds = modulusBounds;
+            this.E = E;
+            this.G = G;
+        }
+
+        /* Finds a material by the name shown in the GUI, or null if there is none */
+        public static Material fromDisplayName(String displayName) {
+            return byDisplayName.get(displayName);
+        }
+
+        /* Calculates Sut (psi) */
+        public double ultimateTensileStrength(double wireDiameter) {
+            int standard = Arrays.binarySearch(STANDARD_WIRE_DIAMETERS, wireDiameter);
+            if (standard >= 0) {
+                return standardUltimateTensileStrengths[standard];
+            }
+            return calculateUltimateTensileStrength(wireDiameter);
+        }
+
+        /* Calculates m, the exponent in Sut = A / d^m, for the strength band holding the wire diameter */
+        public double ultimateTensileStrengthExponent(double wireDiameter) {
+            int band = band(strengthBounds, wireDiameter);
+            return (band < 0) ? 0 : m[band];
+        }
+
+        /* Calculates E (psi) */
+        public double modulusOfElasticity(double wireDiameter) {
+            int band = band(modulusBounds, wireDiameter);
+            return (band < 0) ? 0 : E[band];
+        }
+
+        /* Calculates G (psi) */
+        public double modulusOfRigidity(double wireDiameter) {
+            int band = band(modulusBounds, wireDiameter);
+            return (band < 0) ? 0 : G[band];
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+
+        private double calculateUltimateTensileStrength(double wireDiameter) {
+            int band = band(strengthBounds, wireDiameter);
+            if (band < 0) {
+                return 0;
+            }
+            return (A[band] / (Math.pow(wireDiameter, m[band]))) * 1000;
+        }
+
+        /* Index of the band (bounds[i], bounds[i + 1]] holding the wire diameter, or -1 if there is none */
+        private static int band(double[] bounds, double wireDiameter) {
+            if (bounds == null) {
+                return 0;
+            }
+            if (!(wireDiameter > bounds[0] && wireDiameter <= bounds[bounds.length - 1])) {
+                return -1;
+            }
+
+            int low = 0;
+            int high = bounds.length - 2;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (wireDiameter <= bounds[middle + 1]) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Spring end types, each described by how total coils, active coils, and pitch follow from the wire diameter and
+     * lengths: Nt = Ls / d - solidEndCoils, Na = Nt - inactiveCoils, and p = (Lo - pitchEndDiameters * d) /
+     * (Na + pitchEndCoils).
+     */
+    public enum EndType {
+        PLAIN("Plain", 1, 0, 1, 0),
+        PLAIN_AND_GROUND("Plain and ground", 0, 1, 0, 1),
+        SQUARED_OR_CLOSED("Squared or closed", 1, 2, 3, 0),
+        SQUARED_AND_GROUND("Squared and ground", 0, 2, 2, 0);
+
+        private static final Map<String, EndType> byDisplayName = new HashMap<>();
+
+        static {
+            for (EndType endType : values()) {
+                byDisplayName.put(endType.displayName, endType);
+            }
+        }
+
+        public final String displayName;
+        private final double solidEndCoils;
+        private final double inactiveCoils;
+        private final double pitchEndDiameters;
+        private final double pitchEndCoils;
+
+        EndType(String displayName, double solidEndCoils, double inactiveCoils, double pitchEndDiameters,
+                double pitchEndCoils) {
+            this.displayName = displayName;
+            this.solidEndCoils = solidEndCoils;
+            this.inactiveCoils = inactiveCoils;
+            this.pitchEndDiameters = pitchEndDiameters;
+            this.pitchEndCoils = pitchEndCoils;
+        }
+
+        /* Finds an end type by the name shown in the GUI, or null if there is none */
+        public static EndType fromDisplayName(String displayName) {
+            return byDisplayName.get(displayName);
+        }
+
+        /* Calculates Nt (coils) */
+        public double totalCoils(double wireDiameter, double solidLength) {
+            return (solidLength / wireDiameter) - solidEndCoils;
+        }
+
+        /* Calculates Na (coils) */
+        public double activeCoils(double totalCoils) {
+            return totalCoils - inactiveCoils;
+        }
+
+        /* Calculates Ls (in) for a number of active coils, the inverse of totalCoils and activeCoils */
+        public double solidLength(double wireDiameter, double activeCoils) {
+            return (activeCoils + inactiveCoils + solidEndCoils) * wireDiameter;
+        }
+
+        /* Calculates p (in) */
+        public double pitch(double wireDiameter, double freeLength, double activeCoils) {
+            return (freeLength - (pitchEndDiameters * wireDiameter)) / (activeCoils + pitchEndCoils);
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
     /**
      * All methods below this point have to do with displaying the GUI elements only (no calculations)
      */
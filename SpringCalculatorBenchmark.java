@@ -0,0 +1,454 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+
+/**
+ * ME 35401 - Spring Calculator (Benchmarks)
+ *
+ * This program times every public static calculation method in SpringCalculator for each material and end type, a
+ * full evaluation of one design with and without its derivatives, and the batch, sweep, Pareto front, dynamics, and
+ * kernel paths. Each benchmark is warmed up and then measured over several iterations. The time per operation,
+ * allocation per operation, and garbage collections are printed as CSV so that runs from different commits can be
+ * compared directly. Benchmarks that work in whole batches or grids are run for a whole number of them, so the time
+ * is divided by the designs actually evaluated. Allocation is measured on the calling thread only, so it is n/a for
+ * benchmarks that run on a fork-join pool.
+ *
+ * Usage: java SpringCalculatorBenchmark [name regex] [warmup iterations] [measurement iterations]
+ *
+ */
+
+public class SpringCalculatorBenchmark {
+    private static final long ITERATION_NANOS = 200_000_000L;
+    private static final int INPUT_COUNT = 1024;
+    private static final int INPUT_MASK = INPUT_COUNT - 1;
+
+    /* Runs the measured code the given number of times and returns a value that depends on every result */
+    private interface Benchmark {
+        double run(int operations);
+    }
+
+    private static final class Entry {
+        final String name;
+        // Operations done at a time; the benchmark is only asked for multiples of this
+        final int batchSize;
+        // Whether the work runs on other threads, whose allocation is not measured
+        final boolean parallel;
+        final Benchmark benchmark;
+
+        Entry(String name, Benchmark benchmark) {
+            this(name, 1, false, benchmark);
+        }
+
+        Entry(String name, int batchSize, boolean parallel, Benchmark benchmark) {
+            this.name = name;
+            this.batchSize = batchSize;
+            this.parallel = parallel;
+            this.benchmark = benchmark;
+        }
+    }
+
+    // Inputs are varied per operation so the JIT cannot fold the calculations away
+    private static final double[] wireDiameters = new double[INPUT_COUNT];
+    private static final double[] outerDiameters = new double[INPUT_COUNT];
+    private static final double[] freeLengths = new double[INPUT_COUNT];
+    private static final double[] solidLengths = new double[INPUT_COUNT];
+    private static final double[] minForces = new double[INPUT_COUNT];
+    private static final double[] maxForces = new double[INPUT_COUNT];
+
+    static {
+        Random random = new Random(35401);
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            wireDiameters[i] = 0.03 + (random.nextDouble() * 0.15);
+            outerDiameters[i] = wireDiameters[i] * (6 + (random.nextDouble() * 6));
+            freeLengths[i] = 2 + (random.nextDouble() * 2);
+            solidLengths[i] = 0.8 + (random.nextDouble() * 0.8);
+            minForces[i] = 5 + (random.nextDouble() * 10);
+            maxForces[i] = minForces[i] + (random.nextDouble() * 20);
+        }
+    }
+
+    private static volatile double sink;
+
+    public static void main(String[] args) {
+        Pattern filter = Pattern.compile((args.length > 0) ? args[0] : ".*");
+        int warmupIterations = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+        int measurementIterations = (args.length > 2) ? Integer.parseInt(args[2]) : 10;
+
+        System.out.println("benchmark,ns/op,error(ns/op),ops/s,bytes/op,gc.count,gc.time(ms)");
+        for (Entry entry : benchmarks()) {
+            if (filter.matcher(entry.name).find()) {
+                measure(entry, warmupIterations, measurementIterations);
+            }
+        }
+    }
+
+    private static List<Entry> benchmarks() {
+        List<Entry> entries = new ArrayList<>();
+
+        for (SpringCalculator.Material material : SpringCalculator.Material.values()) {
+            String name = material.displayName;
+            entries.add(new Entry("calculateMaterialInfo[" + name + "]", operations -> {
+                double result = 0;
+                for (int i = 0; i < operations; i++) {
+                    result += SpringCalculator.calculateMaterialInfo(name, wireDiameters[i & INPUT_MASK])[0];
+                }
+                return result;
+            }));
+            entries.add(new Entry("Material.ultimateTensileStrength[" + name + "]", operations -> {
+                double result = 0;
+                for (int i = 0; i < operations; i++) {
+                    result += material.ultimateTensileStrength(wireDiameters[i & INPUT_MASK]);
+                }
+                return result;
+            }));
+        }
+
+        for (SpringCalculator.EndType endType : SpringCalculator.EndType.values()) {
+            String name = endType.displayName;
+            entries.add(new Entry("calculateDimensionalInfo[" + name + "]", operations -> {
+                double result = 0;
+                for (int i = 0; i < operations; i++) {
+                    int j = i & INPUT_MASK;
+                    result += SpringCalculator.calculateDimensionalInfo(name, wireDiameters[j], freeLengths[j],
+                            solidLengths[j])[2];
+                }
+                return result;
+            }));
+        }
+
+        entries.add(new Entry("calculateSpringRate", operations -> {
+            double result = 0;
+            for (int i = 0; i < operations; i++) {
+                int j = i & INPUT_MASK;
+                result += SpringCalculator.calculateSpringRate(wireDiameters[j], 11.5 * 1000000,
+                        outerDiameters[j] - wireDiameters[j], solidLengths[j] * 10);
+            }
+            return result;
+        }));
+        entries.add(new Entry("calculateSpringWeight", operations -> {
+            double result = 0;
+            for (int i = 0; i < operations; i++) {
+                int j = i & INPUT_MASK;
+                result += SpringCalculator.calculateSpringWeight(wireDiameters[j],
+                        outerDiameters[j] - wireDiameters[j], solidLengths[j] * 10, 0.284);
+            }
+            return result;
+        }));
+        entries.add(new Entry("calculateSurgeFrequency", operations -> {
+            double result = 0;
+            for (int i = 0; i < operations; i++) {
+                int j = i & INPUT_MASK;
+                result += SpringCalculator.calculateSurgeFrequency(maxForces[j], wireDiameters[j]);
+            }
+            return result;
+        }));
+        entries.add(new Entry("calculateForceToSolid", operations -> {
+            double result = 0;
+            for (int i = 0; i < operations; i++) {
+                int j = i & INPUT_MASK;
+                result += SpringCalculator.calculateForceToSolid(minForces[j], freeLengths[j], solidLengths[j]);
+            }
+            return result;
+        }));
+        entries.add(new Entry("calculateFactorOfSafetyAtForceToSolid", operations -> {
+            double result = 0;
+            for (int i = 0; i < operations; i++) {
+                int j = i & INPUT_MASK;
+                result += SpringCalculator.calculateFactorOfSafetyAtForceToSolid(maxForces[j], 100 * 1000,
+                        outerDiameters[j] - wireDiameters[j], wireDiameters[j]);
+            }
+            return result;
+        }));
+        entries.add(new Entry("calculateStaticFactorOfSafety", operations -> {
+            double result = 0;
+            for (int i = 0; i < operations; i++) {
+                int j = i & INPUT_MASK;
+                result += SpringCalculator.calculateStaticFactorOfSafety(minForces[j], 100 * 1000,
+                        outerDiameters[j] - wireDiameters[j], wireDiameters[j]);
+            }
+            return result;
+        }));
+        for (boolean peened : new boolean[] {true, false}) {
+            entries.add(new Entry("calculateFatigueFactorOfSafety[" + (peened ? "Peened" : "Unpeened") + "]",
+                    operations -> {
+                        double result = 0;
+                        for (int i = 0; i < operations; i++) {
+                            int j = i & INPUT_MASK;
+                            result += SpringCalculator.calculateFatigueFactorOfSafety(
+                                    outerDiameters[j] - wireDiameters[j], wireDiameters[j], minForces[j],
+                                    maxForces[j], 250 * 1000, peened);
+                        }
+                        return result;
+                    }));
+        }
+
+        for (SpringCalculator.Material material : SpringCalculator.Material.values()) {
+            for (SpringCalculator.EndType endType : SpringCalculator.EndType.values()) {
+                SpringCalculator.Evaluation evaluation = new SpringCalculator.Evaluation();
+                entries.add(new Entry("evaluate[" + material.displayName + ", " + endType.displayName + "]",
+                        operations -> {
+                            double result = 0;
+                            for (int i = 0; i < operations; i++) {
+                                int j = i & INPUT_MASK;
+                                SpringCalculator.evaluate(material, endType, true, wireDiameters[j],
+                                        outerDiameters[j], freeLengths[j], solidLengths[j], minForces[j],
+                                        maxForces[j], evaluation);
+                                result += evaluation.factorOfSafety;
+                            }
+                            return result;
+                        }));
+            }
+        }
+
+        SpringSensitivity.Sensitivity sensitivity = new SpringSensitivity.Sensitivity();
+        entries.add(new Entry("SpringSensitivity.analyze", operations -> {
+            double result = 0;
+            for (int i = 0; i < operations; i++) {
+                int j = i & INPUT_MASK;
+                SpringSensitivity.analyze(SpringCalculator.Material.MUSIC_WIRE, SpringCalculator.EndType.PLAIN, true,
+                        wireDiameters[j], outerDiameters[j], freeLengths[j], solidLengths[j], minForces[j],
+                        maxForces[j], sensitivity);
+                result += sensitivity.factorOfSafety[0];
+            }
+            return result;
+        }));
+
+        String[] lines = new String[INPUT_COUNT];
+        SpringCalculator.Material[] materials = SpringCalculator.Material.values();
+        SpringCalculator.EndType[] endTypes = SpringCalculator.EndType.values();
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            lines[i] = endTypes[i % endTypes.length] + "," + materials[i % materials.length] + ","
+                    + (((i & 1) == 0) ? "Peened" : "Unpeened") + "," + wireDiameters[i] + "," + outerDiameters[i]
+                    + "," + freeLengths[i] + "," + solidLengths[i] + "," + minForces[i] + "," + maxForces[i];
+        }
+        StringBuilder builder = new StringBuilder();
+        SpringCalculator.Evaluation lineEvaluation = new SpringCalculator.Evaluation();
+        entries.add(new Entry("SpringBatchCalculator.evaluateLine", operations -> {
+            double result = 0;
+            for (int i = 0; i < operations; i++) {
+                builder.setLength(0);
+                SpringBatchCalculator.evaluateLine(lines[i & INPUT_MASK], ',', ',', builder, lineEvaluation);
+                result += builder.length();
+            }
+            return result;
+        }));
+
+        // Every input fits in the first cache, so it measures hits; the second is too small to hold any repeats
+        SpringEvaluationCache hitCache = new SpringEvaluationCache(2 * INPUT_COUNT);
+        SpringEvaluationCache missCache = new SpringEvaluationCache(16, SpringEvaluationCache.Policy.LRU,
+                SpringEvaluationCache.DEFAULT_QUANTUM);
+        SpringCalculator.Evaluation cacheEvaluation = new SpringCalculator.Evaluation();
+        for (SpringEvaluationCache cache : new SpringEvaluationCache[] {hitCache, missCache}) {
+            entries.add(new Entry("SpringEvaluationCache.evaluate[" + ((cache == hitCache) ? "hit" : "miss") + "]",
+                    operations -> {
+                        double result = 0;
+                        for (int i = 0; i < operations; i++) {
+                            int j = i & INPUT_MASK;
+                            cache.evaluate(materials[j % materials.length], endTypes[j % endTypes.length], true,
+                                    wireDiameters[j], outerDiameters[j], freeLengths[j], solidLengths[j],
+                                    minForces[j], maxForces[j], cacheEvaluation);
+                            result += cacheEvaluation.factorOfSafety;
+                        }
+                        return result;
+                    }));
+        }
+
+        // Round trip through a daemon on a temporary socket, started the first time the benchmark runs
+        SpringCalculatorDaemon.Client[] daemonClient = new SpringCalculatorDaemon.Client[1];
+        SpringCalculator.Evaluation daemonEvaluation = new SpringCalculator.Evaluation();
+        entries.add(new Entry("SpringCalculatorDaemon.Client.evaluate", operations -> {
+            try {
+                if (daemonClient[0] == null) {
+                    daemonClient[0] = startDaemon();
+                }
+                double result = 0;
+                for (int i = 0; i < operations; i++) {
+                    int j = i & INPUT_MASK;
+                    daemonClient[0].evaluate(materials[j % materials.length], endTypes[j % endTypes.length], true,
+                            wireDiameters[j], outerDiameters[j], freeLengths[j], solidLengths[j], minForces[j],
+                            maxForces[j], daemonEvaluation);
+                    result += daemonEvaluation.factorOfSafety;
+                }
+                return result;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+
+        SpringBatchKernel.Batch batch = new SpringBatchKernel.Batch(INPUT_COUNT);
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            batch.add(materials[i % materials.length], endTypes[i % endTypes.length], (i & 1) == 0, wireDiameters[i],
+                    outerDiameters[i], freeLengths[i], solidLengths[i], minForces[i], maxForces[i]);
+        }
+        // One operation is one design, so these are comparable with the evaluate benchmarks
+        entries.add(new Entry("SpringBatchKernel.evaluate", INPUT_COUNT, false, operations -> {
+            double result = 0;
+            for (int i = 0; i < operations; i += INPUT_COUNT) {
+                SpringBatchKernel.evaluate(batch);
+                result += batch.fatigueFactorOfSafety[i & INPUT_MASK];
+            }
+            return result;
+        }));
+        entries.add(new Entry("SpringBatchKernel.evaluateScalar", INPUT_COUNT, false, operations -> {
+            double result = 0;
+            for (int i = 0; i < operations; i += INPUT_COUNT) {
+                SpringBatchKernel.evaluateScalar(batch);
+                result += batch.fatigueFactorOfSafety[i & INPUT_MASK];
+            }
+            return result;
+        }));
+
+        // One operation is one grid point
+        SpringDesignSweep sweep = new SpringDesignSweep(new SpringDesignSweep.Range(0.03, 0.2, 20),
+                new SpringDesignSweep.Range(0.3, 1.5, 20), new SpringDesignSweep.Range(1.5, 4, 10),
+                new SpringDesignSweep.Range(0.5, 1.5, 10), 10, 30, 20, 0.05, 1.5);
+        int gridSize = Math.toIntExact(sweep.gridSize());
+        entries.add(new Entry("SpringDesignSweep.run", gridSize, true, operations -> {
+            double result = 0;
+            for (int i = 0; i < operations; i += gridSize) {
+                result += sweep.run().size();
+            }
+            return result;
+        }));
+        ForkJoinPool singleThread = new ForkJoinPool(1);
+        entries.add(new Entry("SpringDesignSweep.run[1 thread]", gridSize, true, operations -> {
+            double[] result = new double[1];
+            for (int i = 0; i < operations; i += gridSize) {
+                sweep.run(singleThread, designs -> result[0] += designs.size());
+            }
+            return result[0];
+        }));
+
+        // One operation is one time step
+        SpringDynamics dynamics = new SpringDynamics(SpringCalculator.Material.MUSIC_WIRE,
+                SpringCalculator.EndType.SQUARED_AND_GROUND, false, 0.08, 0.6, 2.5, 1.0, 2, 0.02, 1e-5);
+        SpringDynamics.Forcing forcing = SpringDynamics.Forcing.sine(10, 30, 25);
+        SpringDynamics.Result dynamicsResult = new SpringDynamics.Result();
+        entries.add(new Entry("SpringDynamics.simulate", operations -> {
+            dynamics.simulate(forcing, operations * dynamics.timeStep, 0, dynamicsResult);
+            return dynamicsResult.maxForce;
+        }));
+
+        // One operation is one candidate; the safety factors trade off against each other so the front is not tiny
+        int candidateCount = INPUT_COUNT;
+        Random frontRandom = new Random(42);
+        double[] volumes = new double[candidateCount];
+        double[] factorsOfSafety = new double[candidateCount];
+        double[] factorsOfSafetyAtForceToSolid = new double[candidateCount];
+        for (int i = 0; i < candidateCount; i++) {
+            volumes[i] = frontRandom.nextDouble();
+            factorsOfSafety[i] = 3 * frontRandom.nextDouble();
+            factorsOfSafetyAtForceToSolid[i] = 3 - factorsOfSafety[i] + frontRandom.nextDouble();
+        }
+        entries.add(new Entry("SpringParetoFront.nonDominated", candidateCount, true, operations -> {
+            double result = 0;
+            for (int i = 0; i < operations; i += candidateCount) {
+                result += SpringParetoFront.nonDominated(volumes, factorsOfSafety, factorsOfSafetyAtForceToSolid,
+                        candidateCount, ForkJoinPool.commonPool()).length;
+            }
+            return result;
+        }));
+
+        return entries;
+    }
+
+    /* Starts a daemon on a temporary socket in a background thread and connects a client to it */
+    private static SpringCalculatorDaemon.Client startDaemon() throws IOException {
+        Path socketPath = Files.createTempDirectory("spring-benchmark").resolve("daemon.sock");
+        SpringCalculatorDaemon daemon = new SpringCalculatorDaemon(socketPath);
+        Thread thread = new Thread(() -> {
+            try {
+                daemon.serve();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, "spring-benchmark-daemon");
+        thread.setDaemon(true);
+        thread.start();
+        return new SpringCalculatorDaemon.Client(socketPath);
+    }
+
+    /* Warms up, then measures a benchmark and prints one CSV row */
+    private static void measure(Entry entry, int warmupIterations, int measurementIterations) {
+        // Calibrate the number of operations that fills one iteration, in whole batches
+        int operations = wholeBatches(1024, entry.batchSize);
+        while (true) {
+            long startTime = System.nanoTime();
+            sink = entry.benchmark.run(operations);
+            long elapsed = System.nanoTime() - startTime;
+            if (elapsed > ITERATION_NANOS / 4 || operations >= (1 << 29)) {
+                operations = (int) Math.min(1 << 30, Math.max(1, (long) operations * ITERATION_NANOS / elapsed));
+                operations = wholeBatches(operations, entry.batchSize);
+                break;
+            }
+            operations <<= 1;
+        }
+
+        for (int i = 0; i < warmupIterations; i++) {
+            sink = entry.benchmark.run(operations);
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTime();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+
+        double[] nanosPerOperation = new double[measurementIterations];
+        for (int i = 0; i < measurementIterations; i++) {
+            long startTime = System.nanoTime();
+            sink = entry.benchmark.run(operations);
+            nanosPerOperation[i] = (double) (System.nanoTime() - startTime) / operations;
+        }
+
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        long gcCount = gcCount() - gcCountBefore;
+        long gcTime = gcTime() - gcTimeBefore;
+
+        double mean = 0;
+        for (double value : nanosPerOperation) {
+            mean += value;
+        }
+        mean /= measurementIterations;
+        double variance = 0;
+        for (double value : nanosPerOperation) {
+            variance += (value - mean) * (value - mean);
+        }
+        double error = (measurementIterations > 1) ? Math.sqrt(variance / (measurementIterations - 1)) : 0;
+
+        String bytesPerOperation = entry.parallel ? "n/a" : String.format("%.3f",
+                (double) allocated / ((long) operations * measurementIterations));
+        System.out.printf("\"%s\",%.3f,%.3f,%.0f,%s,%d,%d%n", entry.name, mean, error, 1e9 / mean,
+                bytesPerOperation, gcCount, gcTime);
+    }
+
+    /* The smallest multiple of batchSize that is at least operations */
+    private static int wholeBatches(int operations, int batchSize) {
+        return Math.multiplyExact((operations + batchSize - 1) / batchSize, batchSize);
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, collector.getCollectionTime());
+        }
+        return time;
+    }
+}
@@ -0,0 +1,189 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * ME 35401 - Spring Calculator (Checks)
+ *
+ * This program runs the self-checks that guard properties the calculations rely on but that the results alone do not
+ * show. Each check prints one line saying whether it passed, and the program exits with status 1 if any failed, so
+ * it can be run by hand or from a script after a change.
+ *
+ * allocation: warmed-up SpringCalculator.evaluate calls over every material and end type allocate no memory on the
+ * calling thread, as measured by ThreadMXBean.getThreadAllocatedBytes.
+ *
+ * fused: the fused evaluateStresses path agrees with the separate calculateSpringRate, calculateForceToSolid,
+ * calculateFactorOfSafetyAtForceToSolid, calculateStaticFactorOfSafety, and calculateFatigueFactorOfSafety methods
+ * to within FUSED_TOLERANCE (relative) for every material, end type, and peen type.
+ *
+ * Usage: java SpringCalculatorCheck [allocation] [fused]
+ *
+ */
+
+public class SpringCalculatorCheck {
+    private static final int ALLOCATION_WARMUP_EVALUATIONS = 2_000_000;
+    private static final int ALLOCATION_MEASURED_EVALUATIONS = 5_000_000;
+    private static final int FUSED_DESIGNS = 100_000;
+    private static final double FUSED_TOLERANCE = 1e-12;
+    private static final int INPUT_COUNT = 1024;
+    private static final int INPUT_MASK = INPUT_COUNT - 1;
+
+    private static final SpringCalculator.Material[] materials = SpringCalculator.Material.values();
+    private static final SpringCalculator.EndType[] endTypes = SpringCalculator.EndType.values();
+
+    /* A named check that returns null if it passed, or a description of the failure */
+    private interface Check {
+        String run();
+    }
+
+    private static final class Entry {
+        final String name;
+        final Check check;
+
+        Entry(String name, Check check) {
+            this.name = name;
+            this.check = check;
+        }
+    }
+
+    public static void main(String[] args) {
+        List<Entry> entries = new ArrayList<>();
+        entries.add(new Entry("allocation", SpringCalculatorCheck::checkAllocation));
+        entries.add(new Entry("fused", SpringCalculatorCheck::checkFused));
+
+        boolean passed = true;
+        for (Entry entry : entries) {
+            if (!selected(entry.name, args)) {
+                continue;
+            }
+            String failure = entry.check.run();
+            System.out.println(entry.name + ": " + ((failure == null) ? "passed" : "FAILED - " + failure));
+            passed &= failure == null;
+        }
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean selected(String name, String[] args) {
+        if (args.length == 0) {
+            return true;
+        }
+        for (String arg : args) {
+            if (arg.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* Random designs spanning the wire diameters and spring indexes of the tables, with static and cyclic loads */
+    private static double[][] designs(long seed) {
+        Random random = new Random(seed);
+        double[][] designs = new double[6][INPUT_COUNT];
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            double wireDiameter = 0.01 + (0.5 * random.nextDouble());
+            designs[0][i] = wireDiameter;
+            designs[1][i] = wireDiameter * (4 + (12 * random.nextDouble()));
+            designs[3][i] = wireDiameter * (4 + (20 * random.nextDouble()));
+            designs[2][i] = designs[3][i] * (1.2 + (2 * random.nextDouble()));
+            designs[4][i] = 1 + (50 * random.nextDouble());
+            designs[5][i] = ((i & 1) == 0) ? designs[4][i] : designs[4][i] + (50 * random.nextDouble());
+        }
+        return designs;
+    }
+
+    private static String checkAllocation() {
+        double[][] designs = designs(1);
+        SpringCalculator.Evaluation result = new SpringCalculator.Evaluation();
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        double sink = evaluateDesigns(designs, ALLOCATION_WARMUP_EVALUATIONS, result);
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        sink += evaluateDesigns(designs, ALLOCATION_MEASURED_EVALUATIONS, result);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        if (Double.isInfinite(sink) && sink < 0) {
+            // Keeps the evaluations from being optimized away; never true for these designs
+            return "unexpected result";
+        }
+        return (allocated == 0) ? null : String.format("%d evaluations allocated %d bytes",
+                ALLOCATION_MEASURED_EVALUATIONS, allocated);
+    }
+
+    private static String checkFused() {
+        double[][] designs = designs(2);
+        SpringCalculator.Evaluation result = new SpringCalculator.Evaluation();
+        double worst = 0;
+        String worstCase = null;
+        for (SpringCalculator.Material material : materials) {
+            for (SpringCalculator.EndType endType : endTypes) {
+                for (boolean peened : new boolean[] {true, false}) {
+                    for (int i = 0; i < FUSED_DESIGNS; i++) {
+                        int j = i & INPUT_MASK;
+                        // Vary the dimensions between passes over the inputs
+                        double scale = 1 + (0.25 * ((double) (i >> 10) / (FUSED_DESIGNS >> 10)));
+                        double wireDiameter = designs[0][j];
+                        double outerDiameter = designs[1][j] * scale;
+                        double freeLength = designs[2][j] * scale;
+                        double solidLength = designs[3][j];
+                        double minForce = designs[4][j];
+                        double maxForce = designs[5][j];
+                        SpringCalculator.evaluate(material, endType, peened, wireDiameter, outerDiameter, freeLength,
+                                solidLength, minForce, maxForce, result);
+
+                        double coilDiameter = outerDiameter - wireDiameter;
+                        double springRate = SpringCalculator.calculateSpringRate(wireDiameter, result.G,
+                                coilDiameter, result.activeCoils);
+                        double forceToSolid = SpringCalculator.calculateForceToSolid(springRate, freeLength,
+                                solidLength);
+                        double factorOfSafetyAtForceToSolid = SpringCalculator.calculateFactorOfSafetyAtForceToSolid(
+                                forceToSolid, result.yieldStrengthShear, coilDiameter, wireDiameter);
+                        double factorOfSafety = result.cyclic
+                                ? SpringCalculator.calculateFatigueFactorOfSafety(coilDiameter, wireDiameter,
+                                minForce, maxForce, result.ultimateTensileStrength, peened)
+                                : SpringCalculator.calculateStaticFactorOfSafety(minForce, result.yieldStrengthShear,
+                                coilDiameter, wireDiameter);
+
+                        double[][] pairs = {{result.springRate, springRate}, {result.forceToSolid, forceToSolid},
+                                {result.factorOfSafetyAtForceToSolid, factorOfSafetyAtForceToSolid},
+                                {result.factorOfSafety, factorOfSafety}};
+                        for (double[] pair : pairs) {
+                            double error = relativeError(pair[0], pair[1]);
+                            if (!(error <= worst)) {
+                                worst = error;
+                                worstCase = String.format("%s, %s, %s, d=%s, OD=%s: fused %s vs separate %s",
+                                        material, endType, peened ? "Peened" : "Unpeened", wireDiameter,
+                                        outerDiameter, pair[0], pair[1]);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return (worst <= FUSED_TOLERANCE) ? null : String.format("relative error %.3g (%s)", worst, worstCase);
+    }
+
+    /* Relative difference, treating equal values (including matching infinities and NaN) as exact */
+    private static double relativeError(double fused, double separate) {
+        if ((Double.compare(fused, separate) == 0) || (fused == separate)) {
+            return 0;
+        }
+        return Math.abs(fused - separate) / Math.max(Math.abs(fused), Math.abs(separate));
+    }
+
+    private static double evaluateDesigns(double[][] designs, int evaluations, SpringCalculator.Evaluation result) {
+        double sink = 0;
+        for (int i = 0; i < evaluations; i++) {
+            int j = i & INPUT_MASK;
+            SpringCalculator.evaluate(materials[i % materials.length], endTypes[(i / materials.length)
+                            % endTypes.length], (i & 2) == 0, designs[0][j], designs[1][j], designs[2][j],
+                    designs[3][j], designs[4][j], designs[5][j], result);
+            sink += result.factorOfSafety;
+        }
+        return sink;
+    }
+}
@@ -0,0 +1,87 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * ME 35401 - Spring Calculator (Client)
+ *
+ * This program sends designs to a running SpringCalculatorDaemon and prints the values shown by the final values
+ * dialogs as CSV: pitch, totalCoils, activeCoils, springRate, forceToSolid, factorOfSafetyAtForceToSolid, loadCase,
+ * and factorOfSafety. A design can be given as arguments, or many can be piped in as batch mode rows (endType,
+ * material, peened, wireDiameter, outerDiameter, freeLength, solidLength, minForce, maxForce) over one connection.
+ *
+ * Usage: java SpringCalculatorClient [socket=path] endType,material,peened,wireDiameter,outerDiameter,freeLength,
+ *        solidLength,minForce,maxForce
+ *        java SpringCalculatorClient [socket=path] < designs.csv
+ *
+ */
+
+public class SpringCalculatorClient {
+    public static void main(String[] args) throws IOException {
+        Path socketPath = SpringCalculatorDaemon.defaultSocketPath();
+        StringBuilder design = new StringBuilder();
+        for (String arg : args) {
+            if (arg.startsWith("socket=")) {
+                socketPath = Path.of(arg.substring("socket=".length()));
+            } else {
+                design.append((design.length() > 0) ? " " : "").append(arg);
+            }
+        }
+
+        SpringCalculator.Evaluation result = new SpringCalculator.Evaluation();
+        StringBuilder builder = new StringBuilder();
+        try (SpringCalculatorDaemon.Client client = new SpringCalculatorDaemon.Client(socketPath)) {
+            if (design.length() > 0) {
+                evaluateLine(client, design.toString(), builder, result);
+                System.out.print(builder);
+                return;
+            }
+
+            BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isBlank()) {
+                    evaluateLine(client, line, builder, result);
+                }
+                if (builder.length() >= 8192) {
+                    System.out.print(builder);
+                    builder.setLength(0);
+                }
+            }
+            System.out.print(builder);
+        }
+    }
+
+    /* Evaluates one batch mode row, or writes "invalid" in the load case column if it cannot be evaluated */
+    private static void evaluateLine(SpringCalculatorDaemon.Client client, String line, StringBuilder builder,
+                                     SpringCalculator.Evaluation result) throws IOException {
+        String[] fields = line.split(",", -1);
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = fields[i].trim();
+        }
+
+        try {
+            SpringCalculator.EndType endType = (fields.length >= 9)
+                    ? SpringCalculator.EndType.fromDisplayName(fields[0]) : null;
+            SpringCalculator.Material material = (fields.length >= 9)
+                    ? SpringCalculator.Material.fromDisplayName(fields[1]) : null;
+            if ((endType == null) || (material == null)) {
+                throw new IllegalArgumentException("Invalid design: " + line);
+            }
+            client.evaluate(material, endType, SpringBatchCalculator.parsePeenType(fields[2]),
+                    Double.parseDouble(fields[3]), Double.parseDouble(fields[4]), Double.parseDouble(fields[5]),
+                    Double.parseDouble(fields[6]), Double.parseDouble(fields[7]), Double.parseDouble(fields[8]),
+                    result);
+        } catch (IllegalArgumentException e) {
+            builder.append(",,,,,,invalid,\n");
+            return;
+        }
+
+        builder.append(result.pitch).append(',').append(result.totalCoils).append(',').append(result.activeCoils)
+                .append(',').append(result.springRate).append(',').append(result.forceToSolid).append(',')
+                .append(result.factorOfSafetyAtForceToSolid).append(',').append(result.cyclic ? "cyclic" : "static")
+                .append(',').append(result.factorOfSafety).append('\n');
+    }
+}
@@ -0,0 +1,274 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ME 35401 - Spring Calculator (Daemon)
+ *
+ * This program keeps a warmed-up calculator running behind a Unix domain socket, so scripts that check one part at a
+ * time pay microseconds per design instead of starting a JVM each time. It never touches Swing. Each connection may
+ * send any number of requests and receives one response per request, in order.
+ *
+ * Requests and responses are fixed-size frames in network byte order. A request is REQUEST_BYTES long: the end type
+ * ordinal, material ordinal, and peened flag as single bytes, one unused byte, then the wire diameter, outer
+ * diameter, free length, solid length, min force, and max force as doubles. A response is RESPONSE_BYTES long: a
+ * status byte (STATUS_OK or STATUS_INVALID), a cyclic flag byte, two unused bytes, then Sut, Sy, Sys, E, G, total
+ * coils, active coils, pitch, spring rate, force to solid, factor of safety at solid length, and the factor of safety
+ * for the load as doubles. Ordinals follow the order of the end type and material dialogs. With SpringMetrics
+ * enabled, the metrics are printed when the daemon shuts down.
+ *
+ * Usage: java SpringCalculatorDaemon [socket=path]
+ *
+ */
+
+public class SpringCalculatorDaemon implements Closeable {
+    public static final int REQUEST_BYTES = 4 + (6 * Double.BYTES);
+    public static final int RESPONSE_BYTES = 4 + (12 * Double.BYTES);
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_INVALID = 1;
+
+    private static final SpringCalculator.Material[] materials = SpringCalculator.Material.values();
+    private static final SpringCalculator.EndType[] endTypes = SpringCalculator.EndType.values();
+
+    // File type bits of a Unix mode, and the type of a socket
+    private static final int S_IFMT = 0170000;
+    private static final int S_IFSOCK = 0140000;
+
+    private final Path socketPath;
+    private final ServerSocketChannel server;
+    private final ExecutorService executor;
+
+    public SpringCalculatorDaemon(Path socketPath) throws IOException {
+        this.socketPath = socketPath;
+        deleteStaleSocket(socketPath);
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socketPath));
+        executor = newConnectionExecutor();
+    }
+
+    /*
+     * A socket file left behind by a daemon that did not shut down cleanly would block the bind. It is only deleted
+     * if it is a socket that refuses connections; anything else at the path is left alone.
+     */
+    private static void deleteStaleSocket(Path socketPath) throws IOException {
+        if (!Files.exists(socketPath, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        int mode = (Integer) Files.getAttribute(socketPath, "unix:mode", LinkOption.NOFOLLOW_LINKS);
+        if ((mode & S_IFMT) != S_IFSOCK) {
+            throw new IOException(socketPath + " exists and is not a socket");
+        }
+        SocketChannel channel;
+        try {
+            channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath));
+        } catch (ConnectException e) {
+            Files.delete(socketPath);
+            return;
+        }
+        channel.close();
+        throw new IOException("Spring Calculator daemon already running on " + socketPath);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path socketPath = defaultSocketPath();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair[0].equals("socket")) {
+                socketPath = Path.of(pair[1]);
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        SpringCalculatorDaemon daemon = new SpringCalculatorDaemon(socketPath);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                daemon.close();
+            } catch (IOException e) {
+                // Exiting anyway
+            }
+            if (SpringMetrics.ENABLED) {
+                System.err.print(SpringMetrics.export());
+            }
+        }));
+        System.err.println("Spring Calculator listening on " + socketPath);
+        daemon.serve();
+    }
+
+    /* The socket used when none is given: spring-calculator.sock in the temporary directory */
+    public static Path defaultSocketPath() {
+        return Path.of(System.getProperty("java.io.tmpdir"), "spring-calculator.sock");
+    }
+
+    /* Accepts connections until the daemon is closed */
+    public void serve() throws IOException {
+        while (server.isOpen()) {
+            SocketChannel connection;
+            try {
+                connection = server.accept();
+            } catch (IOException e) {
+                if (!server.isOpen()) {
+                    return;
+                }
+                throw e;
+            }
+            executor.execute(() -> handle(connection));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        executor.shutdown();
+        Files.deleteIfExists(socketPath);
+    }
+
+    /*
+     * Uses a virtual thread per connection when available (JDK 21+), otherwise a cached pool of daemon threads, so
+     * open connections never keep the JVM alive on their own
+     */
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "spring-daemon-connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private static void handle(SocketChannel connection) {
+        ByteBuffer request = ByteBuffer.allocateDirect(REQUEST_BYTES);
+        ByteBuffer response = ByteBuffer.allocateDirect(RESPONSE_BYTES);
+        SpringCalculator.Evaluation evaluation = new SpringCalculator.Evaluation();
+        try (connection) {
+            while (true) {
+                request.clear();
+                if (!readFully(connection, request)) {
+                    return;
+                }
+                request.flip();
+                response.clear();
+                evaluate(request, response, evaluation);
+                response.flip();
+                while (response.hasRemaining()) {
+                    connection.write(response);
+                }
+            }
+        } catch (IOException e) {
+            // The client went away mid-frame; nothing to answer
+        }
+    }
+
+    /* Decodes one request frame and encodes its response */
+    static void evaluate(ByteBuffer request, ByteBuffer response, SpringCalculator.Evaluation evaluation) {
+        int endType = request.get();
+        int material = request.get();
+        boolean peened = request.get() != 0;
+        request.get();
+        double wireDiameter = request.getDouble();
+        double outerDiameter = request.getDouble();
+        double freeLength = request.getDouble();
+        double solidLength = request.getDouble();
+        double minForce = request.getDouble();
+        double maxForce = request.getDouble();
+
+        if ((endType < 0) || (endType >= endTypes.length) || (material < 0) || (material >= materials.length)) {
+            response.put(STATUS_INVALID).put((byte) 0).putShort((short) 0);
+            while (response.hasRemaining()) {
+                response.putDouble(Double.NaN);
+            }
+            return;
+        }
+
+        SpringMetrics.evaluate(materials[material], endTypes[endType], peened, wireDiameter, outerDiameter,
+                freeLength, solidLength, minForce, maxForce, evaluation);
+        response.put(STATUS_OK).put((byte) (evaluation.cyclic ? 1 : 0)).putShort((short) 0)
+                .putDouble(evaluation.ultimateTensileStrength).putDouble(evaluation.yieldStrength)
+                .putDouble(evaluation.yieldStrengthShear).putDouble(evaluation.E).putDouble(evaluation.G)
+                .putDouble(evaluation.totalCoils).putDouble(evaluation.activeCoils).putDouble(evaluation.pitch)
+                .putDouble(evaluation.springRate).putDouble(evaluation.forceToSolid)
+                .putDouble(evaluation.factorOfSafetyAtForceToSolid).putDouble(evaluation.factorOfSafety);
+    }
+
+    /* Fills the buffer, returning false if the channel ended cleanly before the first byte */
+    private static boolean readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (buffer.position() == 0) {
+                    return false;
+                }
+                throw new EOFException("Connection closed mid-frame");
+            }
+        }
+        return true;
+    }
+
+    /* A connection to a running daemon; not thread-safe, so use one per thread */
+    public static final class Client implements Closeable {
+        private final SocketChannel channel;
+        private final ByteBuffer request = ByteBuffer.allocateDirect(REQUEST_BYTES);
+        private final ByteBuffer response = ByteBuffer.allocateDirect(RESPONSE_BYTES);
+
+        public Client(Path socketPath) throws IOException {
+            channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath));
+        }
+
+        /* Same as SpringCalculator.evaluate, calculated by the daemon */
+        public SpringCalculator.Evaluation evaluate(SpringCalculator.Material material,
+                                                    SpringCalculator.EndType endType, boolean peened,
+                                                    double wireDiameter, double outerDiameter, double freeLength,
+                                                    double solidLength, double minForce, double maxForce,
+                                                    SpringCalculator.Evaluation result) throws IOException {
+            request.clear();
+            request.put((byte) endType.ordinal()).put((byte) material.ordinal()).put((byte) (peened ? 1 : 0))
+                    .put((byte) 0).putDouble(wireDiameter).putDouble(outerDiameter).putDouble(freeLength)
+                    .putDouble(solidLength).putDouble(minForce).putDouble(maxForce).flip();
+            while (request.hasRemaining()) {
+                channel.write(request);
+            }
+
+            response.clear();
+            if (!readFully(channel, response)) {
+                throw new EOFException("Daemon closed the connection");
+            }
+            response.flip();
+            if (response.get() != STATUS_OK) {
+                throw new IllegalArgumentException("Daemon rejected the design");
+            }
+            result.cyclic = response.get() != 0;
+            response.getShort();
+            result.ultimateTensileStrength = response.getDouble();
+            result.yieldStrength = response.getDouble();
+            result.yieldStrengthShear = response.getDouble();
+            result.E = response.getDouble();
+            result.G = response.getDouble();
+            result.totalCoils = response.getDouble();
+            result.activeCoils = response.getDouble();
+            result.pitch = response.getDouble();
+            result.springRate = response.getDouble();
+            result.forceToSolid = response.getDouble();
+            result.factorOfSafetyAtForceToSolid = response.getDouble();
+            result.factorOfSafety = response.getDouble();
+            return result;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,460 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+/**
+ * ME 35401 - Spring Calculator (HTTP Service)
+ *
+ * This program serves the spring calculations over HTTP on the local machine. A POST to /evaluate with a JSON design
+ * object answers with the values shown by the final values dialogs, and a POST with an array of designs answers with
+ * an array of results, evaluated in parallel. Design objects use the fields endType, material, peened, wireDiameter,
+ * outerDiameter, freeLength, solidLength, minForce, and maxForce, with the end type and material names from the
+ * dialogs. Requests are handled on virtual threads when the JDK has them and on a cached thread pool otherwise, and
+ * repeated designs are answered from a SpringEvaluationCache. Bodies over MAX_BODY_BYTES are refused with 413, and
+ * JSON nested deeper than MAX_DEPTH with 400. A GET of /metrics answers with the SpringMetrics and cache statistics
+ * in the Prometheus text format.
+ *
+ * Usage: java SpringCalculatorServer [port]
+ *
+ */
+
+public class SpringCalculatorServer {
+    private static final int PARALLEL_BATCH_SIZE = 64;
+    private static final int CACHE_SIZE = 1 << 16;
+    // About 80,000 designs in one array
+    private static final int MAX_BODY_BYTES = 16 << 20;
+    private static final int MAX_DEPTH = 64;
+
+    // Clients tend to check the same stock designs again and again
+    private static final SpringEvaluationCache cache = new SpringEvaluationCache(CACHE_SIZE);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public SpringCalculatorServer(InetSocketAddress address) throws IOException {
+        server = HttpServer.create(address, 0);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/evaluate", this::handleEvaluate);
+        server.createContext("/metrics", this::handleMetrics);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : 8080;
+        SpringCalculatorServer server = new SpringCalculatorServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        server.start();
+        System.err.println("Spring Calculator listening on http://localhost:" + server.port() + "/evaluate");
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /* Uses a virtual thread per request when available (JDK 21+), otherwise a cached platform thread pool */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private void handleEvaluate(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                send(exchange, 405, "{\"error\":\"Use POST\"}");
+                return;
+            }
+
+            byte[] bytes;
+            try (InputStream body = exchange.getRequestBody()) {
+                bytes = body.readNBytes(MAX_BODY_BYTES + 1);
+            }
+            if (bytes.length > MAX_BODY_BYTES) {
+                send(exchange, 413, "{\"error\":\"Request body is larger than " + MAX_BODY_BYTES + " bytes\"}");
+                return;
+            }
+
+            String response;
+            try {
+                Object request = new JsonReader(new String(bytes, StandardCharsets.UTF_8)).read();
+                response = evaluate(request);
+            } catch (IllegalArgumentException e) {
+                send(exchange, 400, "{\"error\":" + quote(String.valueOf(e.getMessage())) + "}");
+                return;
+            }
+            send(exchange, 200, response);
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                send(exchange, 405, "{\"error\":\"Use GET\"}");
+                return;
+            }
+            send(exchange, 200, "text/plain; version=0.0.4; charset=utf-8", SpringMetrics.export(cache));
+        }
+    }
+
+    /* Evaluates a design object or an array of design objects and formats the JSON response */
+    static String evaluate(Object request) {
+        if (request instanceof Map) {
+            StringBuilder builder = new StringBuilder(256);
+            appendResult(builder, evaluateDesign((Map<?, ?>) request, new SpringCalculator.Evaluation()));
+            return builder.toString();
+        }
+        if (!(request instanceof List)) {
+            throw new IllegalArgumentException("Expected a design object or an array of design objects");
+        }
+
+        List<?> designs = (List<?>) request;
+        String[] results = new String[designs.size()];
+        IntStream indices = IntStream.range(0, designs.size());
+        if (designs.size() >= PARALLEL_BATCH_SIZE) {
+            indices = indices.parallel();
+        }
+        indices.forEach(i -> {
+            if (!(designs.get(i) instanceof Map)) {
+                throw new IllegalArgumentException("Design " + i + " is not an object");
+            }
+            StringBuilder builder = new StringBuilder(256);
+            appendResult(builder, evaluateDesign((Map<?, ?>) designs.get(i), new SpringCalculator.Evaluation()));
+            results[i] = builder.toString();
+        });
+
+        StringBuilder builder = new StringBuilder(designs.size() * 256 + 2).append('[');
+        for (int i = 0; i < results.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(results[i]);
+        }
+        return builder.append(']').toString();
+    }
+
+    private static SpringCalculator.Evaluation evaluateDesign(Map<?, ?> design, SpringCalculator.Evaluation result) {
+        String endTypeName = stringField(design, "endType");
+        SpringCalculator.EndType endType = SpringCalculator.EndType.fromDisplayName(endTypeName);
+        if (endType == null) {
+            throw new IllegalArgumentException("Invalid end type: " + endTypeName);
+        }
+        String materialName = stringField(design, "material");
+        SpringCalculator.Material material = SpringCalculator.Material.fromDisplayName(materialName);
+        if (material == null) {
+            throw new IllegalArgumentException("Invalid material: " + materialName);
+        }
+
+        Object peened = design.get("peened");
+        boolean isPeened;
+        if (peened instanceof Boolean) {
+            isPeened = (Boolean) peened;
+        } else if ("Peened".equals(peened) || "Unpeened".equals(peened)) {
+            isPeened = peened.equals("Peened");
+        } else {
+            throw new IllegalArgumentException("Invalid peen type: " + peened);
+        }
+
+        return cache.evaluate(material, endType, isPeened, numberField(design, "wireDiameter"),
+                numberField(design, "outerDiameter"), numberField(design, "freeLength"),
+                numberField(design, "solidLength"), numberField(design, "minForce"), numberField(design, "maxForce"),
+                result);
+    }
+
+    private static String stringField(Map<?, ?> design, String name) {
+        Object value = design.get(name);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("Missing or invalid " + name);
+        }
+        return (String) value;
+    }
+
+    private static double numberField(Map<?, ?> design, String name) {
+        Object value = design.get(name);
+        if (!(value instanceof Double)) {
+            throw new IllegalArgumentException("Missing or invalid " + name);
+        }
+        return (Double) value;
+    }
+
+    /* Same values as showStaticFinalValuesMessageDialog and showFatigueFinalValuesMessageDialog */
+    private static void appendResult(StringBuilder builder, SpringCalculator.Evaluation result) {
+        builder.append("{\"pitch\":");
+        appendNumber(builder, result.pitch);
+        builder.append(",\"totalCoils\":");
+        appendNumber(builder, result.totalCoils);
+        builder.append(",\"activeCoils\":");
+        appendNumber(builder, result.activeCoils);
+        builder.append(",\"springRate\":");
+        appendNumber(builder, result.springRate);
+        builder.append(",\"forceToSolid\":");
+        appendNumber(builder, result.forceToSolid);
+        builder.append(",\"factorOfSafetyAtForceToSolid\":");
+        appendNumber(builder, result.factorOfSafetyAtForceToSolid);
+        builder.append(",\"loadCase\":\"").append(result.cyclic ? "cyclic" : "static");
+        builder.append("\",\"factorOfSafety\":");
+        appendNumber(builder, result.factorOfSafety);
+        builder.append('}');
+    }
+
+    /* JSON has no NaN or infinity, so those are sent as null */
+    private static void appendNumber(StringBuilder builder, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            builder.append("null");
+        } else {
+            builder.append(value);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        send(exchange, status, "application/json", body);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String quote(String text) {
+        StringBuilder builder = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    /* Minimal JSON reader for objects, arrays, strings, numbers, booleans, and null */
+    static final class JsonReader {
+        private final String text;
+        private int position;
+        private int depth;
+
+        JsonReader(String text) {
+            this.text = text;
+        }
+
+        Object read() {
+            Object value = readValue();
+            skipWhitespace();
+            if (position != text.length()) {
+                throw error("Unexpected trailing characters");
+            }
+            return value;
+        }
+
+        private Object readValue() {
+            skipWhitespace();
+            if (position >= text.length()) {
+                throw error("Unexpected end of input");
+            }
+            char c = text.charAt(position);
+            switch (c) {
+                case '{' -> {
+                    return readObject();
+                }
+                case '[' -> {
+                    return readArray();
+                }
+                case '"' -> {
+                    return readString();
+                }
+                case 't' -> {
+                    expect("true");
+                    return Boolean.TRUE;
+                }
+                case 'f' -> {
+                    expect("false");
+                    return Boolean.FALSE;
+                }
+                case 'n' -> {
+                    expect("null");
+                    return null;
+                }
+                default -> {
+                    return readNumber();
+                }
+            }
+        }
+
+        private Map<String, Object> readObject() {
+            Map<String, Object> object = new HashMap<>();
+            enter();
+            skipWhitespace();
+            if (peek() == '}') {
+                position++;
+                depth--;
+                return object;
+            }
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"') {
+                    throw error("Expected a field name");
+                }
+                String name = readString();
+                skipWhitespace();
+                if (peek() != ':') {
+                    throw error("Expected ':'");
+                }
+                position++;
+                object.put(name, readValue());
+                skipWhitespace();
+                char c = peek();
+                position++;
+                if (c == '}') {
+                    depth--;
+                    return object;
+                } else if (c != ',') {
+                    throw error("Expected ',' or '}'");
+                }
+            }
+        }
+
+        private List<Object> readArray() {
+            List<Object> array = new ArrayList<>();
+            enter();
+            skipWhitespace();
+            if (peek() == ']') {
+                position++;
+                depth--;
+                return array;
+            }
+            while (true) {
+                array.add(readValue());
+                skipWhitespace();
+                char c = peek();
+                position++;
+                if (c == ']') {
+                    depth--;
+                    return array;
+                } else if (c != ',') {
+                    throw error("Expected ',' or ']'");
+                }
+            }
+        }
+
+        private String readString() {
+            StringBuilder builder = new StringBuilder();
+            position++;
+            while (true) {
+                if (position >= text.length()) {
+                    throw error("Unterminated string");
+                }
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return builder.toString();
+                } else if (c != '\\') {
+                    builder.append(c);
+                    continue;
+                }
+
+                if (position >= text.length()) {
+                    throw error("Unterminated string");
+                }
+                char escape = text.charAt(position++);
+                switch (escape) {
+                    case '"', '\\', '/' -> builder.append(escape);
+                    case 'b' -> builder.append('\b');
+                    case 'f' -> builder.append('\f');
+                    case 'n' -> builder.append('\n');
+                    case 'r' -> builder.append('\r');
+                    case 't' -> builder.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > text.length()) {
+                            throw error("Invalid unicode escape");
+                        }
+                        try {
+                            builder.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Invalid unicode escape");
+                        }
+                        position += 4;
+                    }
+                    default -> throw error("Invalid escape");
+                }
+            }
+        }
+
+        private Double readNumber() {
+            int start = position;
+            while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+                position++;
+            }
+            if (start == position) {
+                throw error("Unexpected character");
+            }
+            try {
+                return Double.parseDouble(text.substring(start, position));
+            } catch (NumberFormatException e) {
+                throw error("Invalid number");
+            }
+        }
+
+        private void expect(String literal) {
+            if (!text.startsWith(literal, position)) {
+                throw error("Unexpected character");
+            }
+            position += literal.length();
+        }
+
+        private char peek() {
+            if (position >= text.length()) {
+                throw error("Unexpected end of input");
+            }
+            return text.charAt(position);
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        /* Steps into an object or array, refusing nesting that would recurse too deeply */
+        private void enter() {
+            if (++depth > MAX_DEPTH) {
+                throw error("Nesting deeper than " + MAX_DEPTH + " levels");
+            }
+            position++;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + position);
+        }
+    }
+}
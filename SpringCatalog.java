@@ -0,0 +1,596 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * ME 35401 - Spring Calculator (Stock Catalog)
+ *
+ * This program searches a catalog of stock springs. The vendor CSV is read once, each part's coils, spring rate, and
+ * force to solid are calculated with the same methods as the GUI, and every value is kept in its own primitive array
+ * (one entry per part, stored in order of spring rate) rather than in an object per part. Spring rate, outer
+ * diameter, free length, and force to solid each have a sorted index, so a query binary searches every constrained
+ * index, walks only the narrowest of the matching ranges, and checks the remaining limits (and the factor of safety
+ * for the query's load, which depends on the load) against the columns. A catalog can be saved as a binary snapshot,
+ * indexes included, that loads with a few bulk reads instead of parsing and sorting again.
+ *
+ * The CSV columns are partNumber, endType, material, peened, wireDiameter, outerDiameter, freeLength, and
+ * solidLength, with the end type and material names from the dialogs; rows that cannot be evaluated are skipped.
+ *
+ * Usage: java SpringCatalog <catalog.csv|catalog.bin> [snapshot=catalog.bin] [springRate=min:max]
+ *        [outerDiameter=min:max] [freeLength=min:max] [forceToSolid=min:max] [minForce=value maxForce=value]
+ *        [minFactorOfSafety=value] [minFactorOfSafetyAtForceToSolid=value]
+ *
+ */
+
+public class SpringCatalog {
+    private static final int SNAPSHOT_MAGIC = 0x53504354;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private static final SpringCalculator.Material[] materials = SpringCalculator.Material.values();
+    private static final SpringCalculator.EndType[] endTypes = SpringCalculator.EndType.values();
+
+    /*
+     * Limits of a catalog search. Ranges are inclusive and unbounded by default, and the factor of safety limits are
+     * only applied when a load is given (min and max force not NaN).
+     */
+    public static final class Query {
+        public double minSpringRate = Double.NEGATIVE_INFINITY;
+        public double maxSpringRate = Double.POSITIVE_INFINITY;
+        public double minOuterDiameter = Double.NEGATIVE_INFINITY;
+        public double maxOuterDiameter = Double.POSITIVE_INFINITY;
+        public double minFreeLength = Double.NEGATIVE_INFINITY;
+        public double maxFreeLength = Double.POSITIVE_INFINITY;
+        public double minForceToSolid = Double.NEGATIVE_INFINITY;
+        public double maxForceToSolid = Double.POSITIVE_INFINITY;
+        public double minFactorOfSafetyAtForceToSolid = Double.NEGATIVE_INFINITY;
+        public double minForce = Double.NaN;
+        public double maxForce = Double.NaN;
+        public double minFactorOfSafety = Double.NEGATIVE_INFINITY;
+    }
+
+    private final int size;
+    private final int skippedRows;
+    private final String[] partNumbers;
+    private final byte[] endType;
+    private final byte[] material;
+    private final boolean[] peened;
+    private final double[] wireDiameter;
+    private final double[] outerDiameter;
+    private final double[] freeLength;
+    private final double[] solidLength;
+    private final double[] ultimateTensileStrength;
+    private final double[] yieldStrengthShear;
+    private final double[] activeCoils;
+    private final double[] springRate;
+    private final double[] forceToSolid;
+    private final double[] factorOfSafetyAtForceToSolid;
+
+    // Part rows in ascending order of each indexed column
+    private final int[] springRateIndex;
+    private final int[] outerDiameterIndex;
+    private final int[] freeLengthIndex;
+    private final int[] forceToSolidIndex;
+
+    private SpringCatalog(int size, int skippedRows) {
+        this.size = size;
+        this.skippedRows = skippedRows;
+        partNumbers = new String[size];
+        endType = new byte[size];
+        material = new byte[size];
+        peened = new boolean[size];
+        wireDiameter = new double[size];
+        outerDiameter = new double[size];
+        freeLength = new double[size];
+        solidLength = new double[size];
+        ultimateTensileStrength = new double[size];
+        yieldStrengthShear = new double[size];
+        activeCoils = new double[size];
+        springRate = new double[size];
+        forceToSolid = new double[size];
+        factorOfSafetyAtForceToSolid = new double[size];
+        springRateIndex = new int[size];
+        outerDiameterIndex = new int[size];
+        freeLengthIndex = new int[size];
+        forceToSolidIndex = new int[size];
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java SpringCatalog <catalog.csv|catalog.bin> [snapshot=catalog.bin] "
+                    + "[springRate=min:max] [outerDiameter=min:max] [freeLength=min:max] [forceToSolid=min:max] "
+                    + "[minForce=value maxForce=value] [minFactorOfSafety=value] "
+                    + "[minFactorOfSafetyAtForceToSolid=value]");
+            System.exit(1);
+        }
+
+        Path catalogPath = Path.of(args[0]);
+        long startTime = System.nanoTime();
+        SpringCatalog catalog = catalogPath.getFileName().toString().toLowerCase().endsWith(".bin")
+                ? readSnapshot(catalogPath) : readCsv(catalogPath);
+        System.err.printf("Loaded %d parts (%d rows skipped) in %.3f s%n", catalog.size(), catalog.skippedRows(),
+                (System.nanoTime() - startTime) / 1e9);
+
+        Query query = new Query();
+        for (int i = 1; i < args.length; i++) {
+            String[] pair = args[i].split("=", 2);
+            switch (pair[0]) {
+                case "snapshot" -> catalog.writeSnapshot(Path.of(pair[1]));
+                case "springRate" -> {
+                    query.minSpringRate = lowerBound(pair[1]);
+                    query.maxSpringRate = upperBound(pair[1]);
+                }
+                case "outerDiameter" -> {
+                    query.minOuterDiameter = lowerBound(pair[1]);
+                    query.maxOuterDiameter = upperBound(pair[1]);
+                }
+                case "freeLength" -> {
+                    query.minFreeLength = lowerBound(pair[1]);
+                    query.maxFreeLength = upperBound(pair[1]);
+                }
+                case "forceToSolid" -> {
+                    query.minForceToSolid = lowerBound(pair[1]);
+                    query.maxForceToSolid = upperBound(pair[1]);
+                }
+                case "minForce" -> query.minForce = Double.parseDouble(pair[1]);
+                case "maxForce" -> query.maxForce = Double.parseDouble(pair[1]);
+                case "minFactorOfSafety" -> query.minFactorOfSafety = Double.parseDouble(pair[1]);
+                case "minFactorOfSafetyAtForceToSolid" ->
+                        query.minFactorOfSafetyAtForceToSolid = Double.parseDouble(pair[1]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        startTime = System.nanoTime();
+        int[] rows = catalog.search(query);
+        double milliseconds = (System.nanoTime() - startTime) / 1e6;
+
+        StringBuilder builder = new StringBuilder("partNumber,endType,material,peened,wireDiameter,outerDiameter,"
+                + "freeLength,solidLength,springRate,forceToSolid,factorOfSafetyAtForceToSolid,factorOfSafety\n");
+        for (int row : rows) {
+            builder.append(catalog.partNumber(row)).append(',').append(catalog.endType(row)).append(',')
+                    .append(catalog.material(row)).append(',').append(catalog.peened(row)).append(',')
+                    .append(catalog.wireDiameter(row)).append(',').append(catalog.outerDiameter(row)).append(',')
+                    .append(catalog.freeLength(row)).append(',').append(catalog.solidLength(row)).append(',')
+                    .append(catalog.springRate(row)).append(',').append(catalog.forceToSolid(row)).append(',')
+                    .append(catalog.factorOfSafetyAtForceToSolid(row)).append(',');
+            if (!Double.isNaN(query.minForce) && !Double.isNaN(query.maxForce)) {
+                builder.append(catalog.factorOfSafety(row, query.minForce, query.maxForce));
+            }
+            builder.append('\n');
+        }
+        System.out.print(builder);
+        System.err.printf("Found %d parts in %.3f ms%n", rows.length, milliseconds);
+    }
+
+    /* "min:max" with either side left empty for no limit */
+    private static double lowerBound(String range) {
+        String min = range.substring(0, separator(range)).trim();
+        return min.isEmpty() ? Double.NEGATIVE_INFINITY : Double.parseDouble(min);
+    }
+
+    private static double upperBound(String range) {
+        String max = range.substring(separator(range) + 1).trim();
+        return max.isEmpty() ? Double.POSITIVE_INFINITY : Double.parseDouble(max);
+    }
+
+    private static int separator(String range) {
+        int separator = range.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid range: " + range + " (expected min:max, either side may be "
+                    + "empty)");
+        }
+        return separator;
+    }
+
+    /* Reads and evaluates a vendor CSV, skipping a header line and any row that cannot be evaluated */
+    public static SpringCatalog readCsv(Path path) throws IOException {
+        int capacity = 1024;
+        int count = 0;
+        int skipped = 0;
+        String[] parts = new String[capacity];
+        byte[] endTypes = new byte[capacity];
+        byte[] materialTypes = new byte[capacity];
+        boolean[] peenTypes = new boolean[capacity];
+        double[] dimensions = new double[capacity * 4];
+
+        try (BufferedReader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            boolean firstLine = true;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                if (firstLine) {
+                    firstLine = false;
+                    if (isHeader(fields)) {
+                        continue;
+                    }
+                }
+                if (count == capacity) {
+                    capacity *= 2;
+                    parts = Arrays.copyOf(parts, capacity);
+                    endTypes = Arrays.copyOf(endTypes, capacity);
+                    materialTypes = Arrays.copyOf(materialTypes, capacity);
+                    peenTypes = Arrays.copyOf(peenTypes, capacity);
+                    dimensions = Arrays.copyOf(dimensions, capacity * 4);
+                }
+
+                try {
+                    if (fields.length < 8) {
+                        throw new IllegalArgumentException("Expected 8 fields but found " + fields.length);
+                    }
+                    SpringCalculator.EndType rowEndType = SpringCalculator.EndType.fromDisplayName(fields[1].trim());
+                    SpringCalculator.Material rowMaterial = SpringCalculator.Material.fromDisplayName(
+                            fields[2].trim());
+                    boolean peened = SpringBatchCalculator.parsePeenType(fields[3].trim());
+                    if ((rowEndType == null) || (rowMaterial == null)) {
+                        throw new IllegalArgumentException("Invalid end type or material");
+                    }
+                    for (int i = 0; i < 4; i++) {
+                        dimensions[(count * 4) + i] = Double.parseDouble(fields[4 + i].trim());
+                    }
+                    parts[count] = fields[0].trim();
+                    endTypes[count] = (byte) rowEndType.ordinal();
+                    materialTypes[count] = (byte) rowMaterial.ordinal();
+                    peenTypes[count] = peened;
+                    count++;
+                } catch (IllegalArgumentException e) {
+                    skipped++;
+                }
+            }
+        }
+
+        SpringCatalog catalog = new SpringCatalog(count, skipped);
+        for (int row = 0; row < count; row++) {
+            catalog.partNumbers[row] = parts[row];
+            catalog.endType[row] = endTypes[row];
+            catalog.material[row] = materialTypes[row];
+            catalog.peened[row] = peenTypes[row];
+            catalog.wireDiameter[row] = dimensions[row * 4];
+            catalog.outerDiameter[row] = dimensions[(row * 4) + 1];
+            catalog.freeLength[row] = dimensions[(row * 4) + 2];
+            catalog.solidLength[row] = dimensions[(row * 4) + 3];
+            catalog.evaluate(row);
+        }
+        catalog.buildIndexes();
+        return catalog;
+    }
+
+    private static boolean isHeader(String[] fields) {
+        if (fields.length < 5) {
+            return true;
+        }
+        try {
+            Double.parseDouble(fields[4].trim());
+            return false;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /* Calculates the derived values of one part with the GUI's calculations */
+    private void evaluate(int row) {
+        SpringCalculator.Material rowMaterial = materials[material[row]];
+        double coilDiameter = outerDiameter[row] - wireDiameter[row];
+        double[] materialInfo = SpringCalculator.calculateMaterialInfo(rowMaterial.displayName, wireDiameter[row]);
+        double[] dimensionalInfo = SpringCalculator.calculateDimensionalInfo(endTypes[endType[row]].displayName,
+                wireDiameter[row], freeLength[row], solidLength[row]);
+
+        ultimateTensileStrength[row] = materialInfo[0];
+        yieldStrengthShear[row] = materialInfo[2];
+        activeCoils[row] = dimensionalInfo[1];
+        springRate[row] = SpringCalculator.calculateSpringRate(wireDiameter[row], materialInfo[4], coilDiameter,
+                activeCoils[row]);
+        forceToSolid[row] = SpringCalculator.calculateForceToSolid(springRate[row], freeLength[row],
+                solidLength[row]);
+        factorOfSafetyAtForceToSolid[row] = SpringCalculator.calculateFactorOfSafetyAtForceToSolid(forceToSolid[row],
+                yieldStrengthShear[row], coilDiameter, wireDiameter[row]);
+    }
+
+    /*
+     * Stores the rows in order of spring rate, since almost every search limits it, so that walking a spring rate
+     * range reads every column sequentially. The other indexes are sorted afterwards, on the reordered rows.
+     */
+    private void buildIndexes() {
+        int[] order = new int[size];
+        sortIndex(order, springRate);
+        String[] partNumbersCopy = partNumbers.clone();
+        byte[] endTypeCopy = endType.clone();
+        byte[] materialCopy = material.clone();
+        boolean[] peenedCopy = peened.clone();
+        for (int row = 0; row < size; row++) {
+            partNumbers[row] = partNumbersCopy[order[row]];
+            endType[row] = endTypeCopy[order[row]];
+            material[row] = materialCopy[order[row]];
+            peened[row] = peenedCopy[order[row]];
+        }
+        for (double[] column : doubleColumns()) {
+            double[] copy = column.clone();
+            for (int row = 0; row < size; row++) {
+                column[row] = copy[order[row]];
+            }
+        }
+
+        sortIndex(springRateIndex, springRate);
+        sortIndex(outerDiameterIndex, outerDiameter);
+        sortIndex(freeLengthIndex, freeLength);
+        sortIndex(forceToSolidIndex, forceToSolid);
+    }
+
+    /* Fills the index with every row, in ascending order of the key (NaN last), with a merge sort */
+    private static void sortIndex(int[] index, double[] keys) {
+        for (int i = 0; i < index.length; i++) {
+            index[i] = i;
+        }
+        int[] buffer = new int[index.length];
+        int[] from = index;
+        int[] to = buffer;
+        for (int width = 1; width < index.length; width *= 2) {
+            for (int start = 0; start < index.length; start += 2 * width) {
+                int middle = Math.min(start + width, index.length);
+                int end = Math.min(start + (2 * width), index.length);
+                int left = start;
+                int right = middle;
+                for (int i = start; i < end; i++) {
+                    if ((left < middle)
+                            && ((right >= end) || (Double.compare(keys[from[left]], keys[from[right]]) <= 0))) {
+                        to[i] = from[left++];
+                    } else {
+                        to[i] = from[right++];
+                    }
+                }
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != index) {
+            System.arraycopy(from, 0, index, 0, index.length);
+        }
+    }
+
+    /* Rows of every part within the query's limits, in ascending order of the index that was walked */
+    public int[] search(Query query) {
+        int[] index = null;
+        int start = 0;
+        int end = size;
+        double[][] keys = {springRate, outerDiameter, freeLength, forceToSolid};
+        int[][] indexes = {springRateIndex, outerDiameterIndex, freeLengthIndex, forceToSolidIndex};
+        double[] mins = {query.minSpringRate, query.minOuterDiameter, query.minFreeLength, query.minForceToSolid};
+        double[] maxes = {query.maxSpringRate, query.maxOuterDiameter, query.maxFreeLength, query.maxForceToSolid};
+
+        // Walk whichever indexed range holds the fewest parts
+        for (int i = 0; i < indexes.length; i++) {
+            if ((mins[i] == Double.NEGATIVE_INFINITY) && (maxes[i] == Double.POSITIVE_INFINITY)) {
+                continue;
+            }
+            int rangeStart = firstAtLeast(indexes[i], keys[i], mins[i]);
+            int rangeEnd = firstAbove(indexes[i], keys[i], maxes[i]);
+            if ((index == null) || ((rangeEnd - rangeStart) < (end - start))) {
+                index = indexes[i];
+                start = rangeStart;
+                end = Math.max(rangeStart, rangeEnd);
+            }
+        }
+
+        boolean loaded = !Double.isNaN(query.minForce) && !Double.isNaN(query.maxForce);
+        int[] rows = new int[Math.min(end - start, 1024)];
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            int row = (index != null) ? index[i] : i;
+            if ((springRate[row] >= query.minSpringRate) && (springRate[row] <= query.maxSpringRate)
+                    && (outerDiameter[row] >= query.minOuterDiameter) && (outerDiameter[row] <= query.maxOuterDiameter)
+                    && (freeLength[row] >= query.minFreeLength) && (freeLength[row] <= query.maxFreeLength)
+                    && (forceToSolid[row] >= query.minForceToSolid) && (forceToSolid[row] <= query.maxForceToSolid)
+                    && (factorOfSafetyAtForceToSolid[row] >= query.minFactorOfSafetyAtForceToSolid)
+                    && (!loaded || (factorOfSafety(row, query.minForce, query.maxForce) >= query.minFactorOfSafety))) {
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, Math.max(16, count * 2));
+                }
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /* Position of the first row in the index whose key is at least the value */
+    private static int firstAtLeast(int[] index, double[] keys, double value) {
+        int low = 0;
+        int high = index.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[index[middle]] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /* Position of the first row in the index whose key is above the value (or NaN) */
+    private static int firstAbove(int[] index, double[] keys, double value) {
+        int low = 0;
+        int high = index.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[index[middle]] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /* Factor of safety of a part for a load, static or fatigue as in main */
+    public double factorOfSafety(int row, double minForce, double maxForce) {
+        double coilDiameter = outerDiameter[row] - wireDiameter[row];
+        if (Math.abs(maxForce - minForce) >= 0.000001d) {
+            return SpringCalculator.calculateFatigueFactorOfSafety(coilDiameter, wireDiameter[row], minForce,
+                    maxForce, ultimateTensileStrength[row], peened[row]);
+        }
+        return SpringCalculator.calculateStaticFactorOfSafety(minForce, yieldStrengthShear[row], coilDiameter,
+                wireDiameter[row]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int skippedRows() {
+        return skippedRows;
+    }
+
+    public String partNumber(int row) {
+        return partNumbers[row];
+    }
+
+    public SpringCalculator.EndType endType(int row) {
+        return endTypes[endType[row]];
+    }
+
+    public SpringCalculator.Material material(int row) {
+        return materials[material[row]];
+    }
+
+    public boolean peened(int row) {
+        return peened[row];
+    }
+
+    public double wireDiameter(int row) {
+        return wireDiameter[row];
+    }
+
+    public double outerDiameter(int row) {
+        return outerDiameter[row];
+    }
+
+    public double freeLength(int row) {
+        return freeLength[row];
+    }
+
+    public double solidLength(int row) {
+        return solidLength[row];
+    }
+
+    public double activeCoils(int row) {
+        return activeCoils[row];
+    }
+
+    public double springRate(int row) {
+        return springRate[row];
+    }
+
+    public double forceToSolid(int row) {
+        return forceToSolid[row];
+    }
+
+    public double factorOfSafetyAtForceToSolid(int row) {
+        return factorOfSafetyAtForceToSolid[row];
+    }
+
+    /*
+     * Snapshot layout (little-endian): magic, version, part count, and skipped row count as ints; the end type,
+     * material, and peen columns as bytes; every double column; the four indexes as ints; then each part number as
+     * an int byte length followed by its UTF-8 bytes.
+     */
+    public void writeSnapshot(Path path) throws IOException {
+        byte[][] names = new byte[size][];
+        long namesLength = 0;
+        for (int row = 0; row < size; row++) {
+            names[row] = partNumbers[row].getBytes(StandardCharsets.UTF_8);
+            namesLength += 4 + names[row].length;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = littleEndian(ByteBuffer.allocate((4 * Integer.BYTES) + (3 * size)));
+            header.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putInt(size).putInt(skippedRows);
+            header.put(endType).put(material);
+            for (boolean rowPeened : peened) {
+                header.put((byte) (rowPeened ? 1 : 0));
+            }
+            writeFully(channel, header.flip());
+
+            for (double[] column : doubleColumns()) {
+                ByteBuffer buffer = littleEndian(ByteBuffer.allocate(size * Double.BYTES));
+                buffer.asDoubleBuffer().put(column);
+                writeFully(channel, buffer);
+            }
+            for (int[] index : indexes()) {
+                ByteBuffer buffer = littleEndian(ByteBuffer.allocate(size * Integer.BYTES));
+                buffer.asIntBuffer().put(index);
+                writeFully(channel, buffer);
+            }
+
+            ByteBuffer buffer = littleEndian(ByteBuffer.allocate((int) namesLength));
+            for (byte[] name : names) {
+                buffer.putInt(name.length).put(name);
+            }
+            writeFully(channel, buffer.flip());
+        }
+    }
+
+    public static SpringCatalog readSnapshot(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = littleEndian(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        if ((buffer.getInt() != SNAPSHOT_MAGIC) || (buffer.getInt() != SNAPSHOT_VERSION)) {
+            throw new IOException("Not a spring catalog snapshot: " + path);
+        }
+
+        int size = buffer.getInt();
+        SpringCatalog catalog = new SpringCatalog(size, buffer.getInt());
+        buffer.get(catalog.endType).get(catalog.material);
+        for (int row = 0; row < size; row++) {
+            catalog.peened[row] = buffer.get() != 0;
+        }
+        for (double[] column : catalog.doubleColumns()) {
+            buffer.asDoubleBuffer().get(column);
+            buffer.position(buffer.position() + (size * Double.BYTES));
+        }
+        for (int[] index : catalog.indexes()) {
+            buffer.asIntBuffer().get(index);
+            buffer.position(buffer.position() + (size * Integer.BYTES));
+        }
+        byte[] name = new byte[64];
+        for (int row = 0; row < size; row++) {
+            int length = buffer.getInt();
+            if (length > name.length) {
+                name = new byte[length];
+            }
+            buffer.get(name, 0, length);
+            catalog.partNumbers[row] = new String(name, 0, length, StandardCharsets.UTF_8);
+        }
+        return catalog;
+    }
+
+    private double[][] doubleColumns() {
+        return new double[][] {wireDiameter, outerDiameter, freeLength, solidLength, ultimateTensileStrength,
+                yieldStrengthShear, activeCoils, springRate, forceToSolid, factorOfSafetyAtForceToSolid};
+    }
+
+    private int[][] indexes() {
+        return new int[][] {springRateIndex, outerDiameterIndex, freeLengthIndex, forceToSolidIndex};
+    }
+
+    private static ByteBuffer littleEndian(ByteBuffer buffer) {
+        return buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
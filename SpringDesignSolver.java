@@ -0,0 +1,379 @@
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * ME 35401 - Spring Calculator (Design Solver)
+ *
+ * This program finds a wire diameter and outer diameter for a target spring rate and load range that give the
+ * highest factor of safety for the load, within an outer diameter envelope and a maximum solid length. The spring
+ * must also reach the max force before going solid, so the solid length is at most the free length less
+ * maxForce / springRate, and it must not yield at solid length. For a given wire and outer diameter, the number of
+ * active coils that gives the target rate follows directly from calculateSpringRate, which fixes the solid length.
+ * The largest wire diameter that still fits the solid length is
+ * found with a safeguarded Newton iteration, the factor of safety is maximized over the wire diameters that fit with
+ * a golden-section search, and the outer diameter is chosen by a coarse scan refined with another golden-section
+ * search. Queries share no state, so any number can be solved concurrently.
+ *
+ * Usage: java SpringDesignSolver material=... endType=... peened=true|false springRate=value minForce=value
+ *        maxForce=value outerDiameter=min:max freeLength=value maxSolidLength=value [wireDiameter=min:max]
+ *
+ */
+
+public class SpringDesignSolver {
+    // Spring index limits recommended by Shigley's Mechanical Engineering Design
+    private static final double MIN_SPRING_INDEX = 4;
+    private static final double MAX_SPRING_INDEX = 12;
+
+    private static final double GOLDEN_RATIO = (Math.sqrt(5) - 1) / 2;
+    private static final double RELATIVE_TOLERANCE = 1e-6;
+    private static final double OUTER_DIAMETER_TOLERANCE = 1e-4;
+    private static final int OUTER_DIAMETER_SCAN_POINTS = 12;
+    private static final int MAX_NEWTON_ITERATIONS = 50;
+
+    /* The design requirements for one solve */
+    public static final class Query {
+        public final SpringCalculator.Material material;
+        public final SpringCalculator.EndType endType;
+        public final boolean peened;
+        public final double springRate;
+        public final double minForce;
+        public final double maxForce;
+        public final double minOuterDiameter;
+        public final double maxOuterDiameter;
+        public final double freeLength;
+        public final double maxSolidLength;
+        public final double minWireDiameter;
+        public final double maxWireDiameter;
+
+        public Query(SpringCalculator.Material material, SpringCalculator.EndType endType, boolean peened,
+                     double springRate, double minForce, double maxForce, double minOuterDiameter,
+                     double maxOuterDiameter, double freeLength, double maxSolidLength, double minWireDiameter,
+                     double maxWireDiameter) {
+            if (!(springRate > 0) || !(minOuterDiameter > 0) || !(maxOuterDiameter >= minOuterDiameter)
+                    || !(freeLength > 0) || !(maxSolidLength > 0) || !(minWireDiameter > 0)
+                    || !(maxWireDiameter >= minWireDiameter)) {
+                throw new IllegalArgumentException("Spring rate, diameters, and lengths must be positive ranges");
+            }
+            this.material = material;
+            this.endType = endType;
+            this.peened = peened;
+            this.springRate = springRate;
+            this.minForce = minForce;
+            this.maxForce = maxForce;
+            this.minOuterDiameter = minOuterDiameter;
+            this.maxOuterDiameter = maxOuterDiameter;
+            this.freeLength = freeLength;
+            this.maxSolidLength = maxSolidLength;
+            this.minWireDiameter = minWireDiameter;
+            this.maxWireDiameter = maxWireDiameter;
+            if (!(solidLengthLimit() > 0)) {
+                throw new IllegalArgumentException("The free length leaves no room to deflect to the max force at "
+                        + "this spring rate");
+            }
+        }
+
+        /* Longest allowed solid length: within maxSolidLength, and long enough a stroke to reach maxForce */
+        double solidLengthLimit() {
+            return Math.min(maxSolidLength, freeLength - (maxForce / springRate));
+        }
+
+        boolean cyclic() {
+            return Math.abs(maxForce - minForce) >= 0.000001d;
+        }
+    }
+
+    /* The best design found, or an infeasible result if nothing fits the envelope */
+    public static final class Solution {
+        public final boolean feasible;
+        public final double wireDiameter;
+        public final double outerDiameter;
+        public final double solidLength;
+        public final SpringCalculator.Evaluation evaluation;
+        public final int evaluations;
+
+        Solution(boolean feasible, double wireDiameter, double outerDiameter, double solidLength,
+                 SpringCalculator.Evaluation evaluation, int evaluations) {
+            this.feasible = feasible;
+            this.wireDiameter = wireDiameter;
+            this.outerDiameter = outerDiameter;
+            this.solidLength = solidLength;
+            this.evaluation = evaluation;
+            this.evaluations = evaluations;
+        }
+    }
+
+    public static void main(String[] args) {
+        SpringCalculator.Material material = null;
+        SpringCalculator.EndType endType = null;
+        boolean peened = false;
+        double springRate = Double.NaN, minForce = Double.NaN, maxForce = Double.NaN;
+        double minOuterDiameter = Double.NaN, maxOuterDiameter = Double.NaN;
+        double freeLength = Double.NaN, maxSolidLength = Double.NaN;
+        double minWireDiameter = 0.004, maxWireDiameter = 0.625;
+
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            switch (pair[0]) {
+                case "material" -> material = SpringCalculator.Material.fromDisplayName(pair[1]);
+                case "endType" -> endType = SpringCalculator.EndType.fromDisplayName(pair[1]);
+                case "peened" -> peened = SpringBatchCalculator.parsePeenType(pair[1]);
+                case "springRate" -> springRate = Double.parseDouble(pair[1]);
+                case "minForce" -> minForce = Double.parseDouble(pair[1]);
+                case "maxForce" -> maxForce = Double.parseDouble(pair[1]);
+                case "outerDiameter" -> {
+                    String[] range = pair[1].split(":");
+                    minOuterDiameter = Double.parseDouble(range[0]);
+                    maxOuterDiameter = Double.parseDouble(range[range.length - 1]);
+                }
+                case "wireDiameter" -> {
+                    String[] range = pair[1].split(":");
+                    minWireDiameter = Double.parseDouble(range[0]);
+                    maxWireDiameter = Double.parseDouble(range[range.length - 1]);
+                }
+                case "freeLength" -> freeLength = Double.parseDouble(pair[1]);
+                case "maxSolidLength" -> maxSolidLength = Double.parseDouble(pair[1]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        if (material == null || endType == null || Double.isNaN(springRate) || Double.isNaN(minForce)
+                || Double.isNaN(maxForce) || Double.isNaN(minOuterDiameter) || Double.isNaN(freeLength)
+                || Double.isNaN(maxSolidLength)) {
+            System.err.println("Usage: java SpringDesignSolver material=... endType=... peened=true|false "
+                    + "springRate=value minForce=value maxForce=value outerDiameter=min:max freeLength=value "
+                    + "maxSolidLength=value [wireDiameter=min:max]");
+            System.exit(1);
+        }
+
+        Query query = new Query(material, endType, peened, springRate, minForce, maxForce, minOuterDiameter,
+                maxOuterDiameter, freeLength, maxSolidLength, minWireDiameter, maxWireDiameter);
+        long startTime = System.nanoTime();
+        Solution solution = solve(query);
+        double micros = (System.nanoTime() - startTime) / 1e3;
+
+        if (!solution.feasible) {
+            System.out.println("No design meets the spring rate within the diameter and solid length envelope "
+                    + "without yielding at solid length");
+        } else {
+            SpringCalculator.Evaluation result = solution.evaluation;
+            System.out.printf("Wire Diameter: %.4f in%nOuter Diameter: %.4f in%nSolid Length: %.4f in%n"
+                            + "Total Coils: %.3f coils%nActive Coils: %.3f coils%nSpring Rate: %.3f lbf/in%n"
+                            + "Force to Compress to Solid Length: %.3f lbf%n"
+                            + "Factor of Safety for Static Yielding at Solid Length: %.2f%n"
+                            + "Factor of Safety for %s: %.3f%n", solution.wireDiameter, solution.outerDiameter,
+                    solution.solidLength, result.totalCoils, result.activeCoils, result.springRate,
+                    result.forceToSolid, result.factorOfSafetyAtForceToSolid,
+                    result.cyclic ? "Infinite Life for Cyclic Load" : "Static Load", result.factorOfSafety);
+        }
+        System.err.printf("Solved in %.1f us with %d evaluations%n", micros, solution.evaluations);
+    }
+
+    /* Solves many queries in parallel, keeping their order */
+    public static List<Solution> solveAll(List<Query> queries) {
+        return queries.parallelStream().map(SpringDesignSolver::solve).collect(Collectors.toList());
+    }
+
+    public static Solution solve(Query query) {
+        Search search = new Search(query);
+
+        // Scan the outer diameter envelope, then refine around the best point
+        double bestOuterDiameter = Double.NaN;
+        double bestFactorOfSafety = Double.NEGATIVE_INFINITY;
+        int points = (query.maxOuterDiameter > query.minOuterDiameter) ? OUTER_DIAMETER_SCAN_POINTS : 1;
+        double step = (points > 1) ? (query.maxOuterDiameter - query.minOuterDiameter) / (points - 1) : 0;
+        for (int i = 0; i < points; i++) {
+            double outerDiameter = query.minOuterDiameter + (step * i);
+            double factorOfSafety = search.bestFactorOfSafety(outerDiameter);
+            if (factorOfSafety > bestFactorOfSafety) {
+                bestFactorOfSafety = factorOfSafety;
+                bestOuterDiameter = outerDiameter;
+            }
+        }
+        if (Double.isNaN(bestOuterDiameter)) {
+            return new Solution(false, Double.NaN, Double.NaN, Double.NaN, null, search.evaluations);
+        }
+
+        if (points > 1) {
+            double low = Math.max(query.minOuterDiameter, bestOuterDiameter - step);
+            double high = Math.min(query.maxOuterDiameter, bestOuterDiameter + step);
+            double refined = search.maximizeOverOuterDiameter(low, high);
+            if (search.bestFactorOfSafety(refined) > bestFactorOfSafety) {
+                bestOuterDiameter = refined;
+            }
+        }
+
+        search.bestFactorOfSafety(bestOuterDiameter);
+        double wireDiameter = search.bestWireDiameter;
+        double activeCoils = search.activeCoils(wireDiameter, bestOuterDiameter - wireDiameter);
+        double solidLength = query.endType.solidLength(wireDiameter, activeCoils);
+        SpringCalculator.Evaluation evaluation = SpringCalculator.evaluate(query.material, query.endType,
+                query.peened, wireDiameter, bestOuterDiameter, query.freeLength, solidLength, query.minForce,
+                query.maxForce, new SpringCalculator.Evaluation());
+        if (!(evaluation.factorOfSafetyAtForceToSolid >= 1)) {
+            return new Solution(false, Double.NaN, Double.NaN, Double.NaN, null, search.evaluations);
+        }
+        return new Solution(true, wireDiameter, bestOuterDiameter, solidLength, evaluation, search.evaluations);
+    }
+
+    /* Per-query search state, so concurrent solves share nothing */
+    private static final class Search {
+        private final Query query;
+        private final boolean cyclic;
+        private final double solidLengthLimit;
+        private double bestWireDiameter;
+        private int evaluations;
+
+        Search(Query query) {
+            this.query = query;
+            this.cyclic = query.cyclic();
+            this.solidLengthLimit = query.solidLengthLimit();
+        }
+
+        /* Na that gives the target rate, from k = d^4 G / (8 D^3 Na) */
+        double activeCoils(double wireDiameter, double coilDiameter) {
+            return SpringCalculator.calculateSpringRate(wireDiameter, query.material.modulusOfRigidity(wireDiameter),
+                    coilDiameter, 1) / query.springRate;
+        }
+
+        /* Ls (in) minus the allowed solid length at the rate-matching number of active coils */
+        private double solidLengthExcess(double wireDiameter, double outerDiameter) {
+            double activeCoils = activeCoils(wireDiameter, outerDiameter - wireDiameter);
+            return query.endType.solidLength(wireDiameter, activeCoils) - solidLengthLimit;
+        }
+
+        /* Factor of safety for the query's load, or -infinity if the design is not valid or yields at solid length */
+        private double factorOfSafety(double wireDiameter, double outerDiameter) {
+            evaluations++;
+            // The spring index limits keep the coil diameter, and so the active coils, positive
+            double coilDiameter = outerDiameter - wireDiameter;
+            double ultimateTensileStrength = query.material.ultimateTensileStrength(wireDiameter);
+            if (!(ultimateTensileStrength > 0)) {
+                return Double.NEGATIVE_INFINITY;
+            }
+
+            double solidLength = query.endType.solidLength(wireDiameter, activeCoils(wireDiameter, coilDiameter));
+            double forceToSolid = SpringCalculator.calculateForceToSolid(query.springRate, query.freeLength,
+                    solidLength);
+            double factorOfSafetyAtForceToSolid = SpringCalculator.calculateFactorOfSafetyAtForceToSolid(forceToSolid,
+                    query.material.shearYieldRatio * ultimateTensileStrength, coilDiameter, wireDiameter);
+            if (!(factorOfSafetyAtForceToSolid >= 1)) {
+                return Double.NEGATIVE_INFINITY;
+            }
+
+            double factorOfSafety = cyclic
+                    ? SpringCalculator.calculateFatigueFactorOfSafety(coilDiameter, wireDiameter, query.minForce,
+                            query.maxForce, ultimateTensileStrength, query.peened)
+                    : SpringCalculator.calculateStaticFactorOfSafety(query.minForce,
+                            query.material.shearYieldRatio * ultimateTensileStrength, coilDiameter, wireDiameter);
+            // A negative endurance strength gives a meaningless factor of safety
+            return (factorOfSafety > 0) ? factorOfSafety : Double.NEGATIVE_INFINITY;
+        }
+
+        /*
+         * Best factor of safety over the wire diameters that fit this outer diameter, remembering the wire diameter
+         * that gave it. Returns -infinity when no wire diameter fits.
+         */
+        double bestFactorOfSafety(double outerDiameter) {
+            double low = Math.max(query.minWireDiameter, outerDiameter / (MAX_SPRING_INDEX + 1));
+            double high = Math.min(query.maxWireDiameter, outerDiameter / (MIN_SPRING_INDEX + 1));
+            if (!(low <= high) || solidLengthExcess(low, outerDiameter) > 0) {
+                bestWireDiameter = Double.NaN;
+                return Double.NEGATIVE_INFINITY;
+            }
+            if (solidLengthExcess(high, outerDiameter) > 0) {
+                high = largestFittingWireDiameter(low, high, outerDiameter);
+            }
+
+            // Golden-section search, then compare with the ends since the optimum is often the largest wire
+            double a = low;
+            double b = high;
+            double c = b - (GOLDEN_RATIO * (b - a));
+            double d = a + (GOLDEN_RATIO * (b - a));
+            double fc = factorOfSafety(c, outerDiameter);
+            double fd = factorOfSafety(d, outerDiameter);
+            while ((b - a) > RELATIVE_TOLERANCE * b) {
+                if (fc < fd) {
+                    a = c;
+                    c = d;
+                    fc = fd;
+                    d = a + (GOLDEN_RATIO * (b - a));
+                    fd = factorOfSafety(d, outerDiameter);
+                } else {
+                    b = d;
+                    d = c;
+                    fd = fc;
+                    c = b - (GOLDEN_RATIO * (b - a));
+                    fc = factorOfSafety(c, outerDiameter);
+                }
+            }
+
+            bestWireDiameter = (fc > fd) ? c : d;
+            double best = Math.max(fc, fd);
+            double atHigh = factorOfSafety(high, outerDiameter);
+            if (atHigh >= best) {
+                bestWireDiameter = high;
+                best = atHigh;
+            }
+            double atLow = factorOfSafety(low, outerDiameter);
+            if (atLow > best) {
+                bestWireDiameter = low;
+                best = atLow;
+            }
+            if (best == Double.NEGATIVE_INFINITY) {
+                bestWireDiameter = Double.NaN;
+            }
+            return best;
+        }
+
+        /*
+         * Largest wire diameter in [low, high] whose solid length fits, given that low fits and high does not. Newton
+         * steps use d(Ls)/dd = Ls (5 / d + 3 / D) for the active coils (G is constant within a band), and any step
+         * that leaves the bracket falls back to bisection.
+         */
+        private double largestFittingWireDiameter(double low, double high, double outerDiameter) {
+            double wireDiameter = 0.5 * (low + high);
+            for (int i = 0; i < MAX_NEWTON_ITERATIONS && (high - low) > RELATIVE_TOLERANCE * high; i++) {
+                double coilDiameter = outerDiameter - wireDiameter;
+                double activeCoils = activeCoils(wireDiameter, coilDiameter);
+                double excess = query.endType.solidLength(wireDiameter, activeCoils) - solidLengthLimit;
+                if (excess > 0) {
+                    high = wireDiameter;
+                } else {
+                    low = wireDiameter;
+                }
+
+                double inactiveLength = query.endType.solidLength(wireDiameter, 0);
+                double slope = (activeCoils * wireDiameter * ((5 / wireDiameter) + (3 / coilDiameter)))
+                        + (inactiveLength / wireDiameter);
+                double next = wireDiameter - (excess / slope);
+                wireDiameter = (next > low && next < high) ? next : 0.5 * (low + high);
+            }
+            return low;
+        }
+
+        /* Golden-section search for the outer diameter with the best factor of safety */
+        double maximizeOverOuterDiameter(double low, double high) {
+            double a = low;
+            double b = high;
+            double c = b - (GOLDEN_RATIO * (b - a));
+            double d = a + (GOLDEN_RATIO * (b - a));
+            double fc = bestFactorOfSafety(c);
+            double fd = bestFactorOfSafety(d);
+            while ((b - a) > OUTER_DIAMETER_TOLERANCE * b) {
+                if (fc < fd) {
+                    a = c;
+                    c = d;
+                    fc = fd;
+                    d = a + (GOLDEN_RATIO * (b - a));
+                    fd = bestFactorOfSafety(d);
+                } else {
+                    b = d;
+                    d = c;
+                    fd = fc;
+                    c = b - (GOLDEN_RATIO * (b - a));
+                    fc = bestFactorOfSafety(c);
+                }
+            }
+            return (fc > fd) ? c : d;
+        }
+    }
+}
@@ -0,0 +1,430 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * ME 35401 - Spring Calculator (Design Sweep)
+ *
+ * This program evaluates a grid of wire diameters, outer diameters, free lengths, and solid lengths for every
+ * material, end type, and peen type, and keeps only the designs whose spring rate is within a tolerance of the target
+ * and whose factors of safety meet a minimum. The grid is split across cores with fork-join. Quantities that do not
+ * depend on the inner loop variables are calculated once per cell, so infeasible cells are rejected before the
+ * lengths are ever visited. Passing designs are printed as CSV, or fully evaluated into a binary SpringResultStore.
+ * With front=true only the passing designs on the SpringParetoFront (least wire volume, highest factors of safety)
+ * are printed, with the front updated as each batch arrives.
+ *
+ * Usage: java SpringDesignSweep wireDiameter=min:max:steps outerDiameter=min:max:steps freeLength=min:max:steps
+ *        solidLength=min:max:steps minForce=value maxForce=value springRate=value [rateTolerance=0.05]
+ *        [minFactorOfSafety=1.2] [output=designs.spr] [front=true]
+ *
+ */
+
+public class SpringDesignSweep {
+    private static final int SINK_BATCH_SIZE = 4096;
+    private static final String CSV_HEADER = "endType,material,peened,wireDiameter,outerDiameter,freeLength,"
+            + "solidLength,totalCoils,activeCoils,pitch,springRate,forceToSolid,factorOfSafetyAtForceToSolid,"
+            + "factorOfSafety";
+
+    private static final SpringCalculator.Material[] materials = SpringCalculator.Material.values();
+
+    private static final SpringCalculator.EndType[] endTypes = SpringCalculator.EndType.values();
+
+    /* Evenly spaced values from min to max (inclusive) */
+    public static final class Range {
+        public final double min;
+        public final double max;
+        public final int steps;
+
+        public Range(double min, double max, int steps) {
+            if (steps < 1 || (steps == 1 && min != max)) {
+                throw new IllegalArgumentException("A range needs at least two steps unless min equals max");
+            }
+            if (max < min) {
+                throw new IllegalArgumentException("A range must not be descending");
+            }
+            this.min = min;
+            this.max = max;
+            this.steps = steps;
+        }
+
+        public double value(int i) {
+            return (steps == 1) ? min : min + ((max - min) * i) / (steps - 1);
+        }
+
+        static Range parse(String text) {
+            String[] parts = text.split(":", -1);
+            if (parts.length == 1) {
+                double value = Double.parseDouble(parts[0]);
+                return new Range(value, value, 1);
+            }
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid range: " + text + " (expected value or min:max:steps)");
+            }
+            return new Range(Double.parseDouble(parts[0]), Double.parseDouble(parts[1]),
+                    Integer.parseInt(parts[2]));
+        }
+    }
+
+    /* A design that passed every constraint */
+    public static final class Design {
+        public final SpringCalculator.EndType endType;
+        public final SpringCalculator.Material material;
+        public final boolean peened;
+        public final double wireDiameter;
+        public final double outerDiameter;
+        public final double freeLength;
+        public final double solidLength;
+        public final double totalCoils;
+        public final double activeCoils;
+        public final double pitch;
+        public final double springRate;
+        public final double forceToSolid;
+        public final double factorOfSafetyAtForceToSolid;
+        public final double factorOfSafety;
+
+        Design(SpringCalculator.EndType endType, SpringCalculator.Material material, boolean peened,
+               double wireDiameter, double outerDiameter, double freeLength, double solidLength, double totalCoils,
+               double activeCoils, double pitch, double springRate, double forceToSolid,
+               double factorOfSafetyAtForceToSolid, double factorOfSafety) {
+            this.endType = endType;
+            this.material = material;
+            this.peened = peened;
+            this.wireDiameter = wireDiameter;
+            this.outerDiameter = outerDiameter;
+            this.freeLength = freeLength;
+            this.solidLength = solidLength;
+            this.totalCoils = totalCoils;
+            this.activeCoils = activeCoils;
+            this.pitch = pitch;
+            this.springRate = springRate;
+            this.forceToSolid = forceToSolid;
+            this.factorOfSafetyAtForceToSolid = factorOfSafetyAtForceToSolid;
+            this.factorOfSafety = factorOfSafety;
+        }
+    }
+
+    private final Range wireDiameters;
+    private final Range outerDiameters;
+    private final Range freeLengths;
+    private final Range solidLengths;
+    private final double minForce;
+    private final double maxForce;
+    private final double minSpringRate;
+    private final double maxSpringRate;
+    private final double minFactorOfSafety;
+    private final boolean cyclic;
+    private final int cellCount;
+
+    public SpringDesignSweep(Range wireDiameters, Range outerDiameters, Range freeLengths, Range solidLengths,
+                             double minForce, double maxForce, double targetSpringRate, double rateTolerance,
+                             double minFactorOfSafety) {
+        this.wireDiameters = wireDiameters;
+        this.outerDiameters = outerDiameters;
+        this.freeLengths = freeLengths;
+        this.solidLengths = solidLengths;
+        this.minForce = minForce;
+        this.maxForce = maxForce;
+        this.minSpringRate = targetSpringRate * (1 - rateTolerance);
+        this.maxSpringRate = targetSpringRate * (1 + rateTolerance);
+        this.minFactorOfSafety = minFactorOfSafety;
+        this.cyclic = Math.abs(maxForce - minForce) >= 0.000001d;
+        this.cellCount = cellCount(wireDiameters, outerDiameters);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Range wire = null, outer = null, free = null, solid = null;
+        double minForce = Double.NaN, maxForce = Double.NaN, springRate = Double.NaN;
+        double rateTolerance = 0.05, minFactorOfSafety = 1.2;
+        Path output = null;
+        boolean front = false;
+
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            switch (pair[0]) {
+                case "wireDiameter" -> wire = Range.parse(pair[1]);
+                case "outerDiameter" -> outer = Range.parse(pair[1]);
+                case "freeLength" -> free = Range.parse(pair[1]);
+                case "solidLength" -> solid = Range.parse(pair[1]);
+                case "minForce" -> minForce = Double.parseDouble(pair[1]);
+                case "maxForce" -> maxForce = Double.parseDouble(pair[1]);
+                case "springRate" -> springRate = Double.parseDouble(pair[1]);
+                case "rateTolerance" -> rateTolerance = Double.parseDouble(pair[1]);
+                case "minFactorOfSafety" -> minFactorOfSafety = Double.parseDouble(pair[1]);
+                case "output" -> output = Path.of(pair[1]);
+                case "front" -> front = Boolean.parseBoolean(pair[1]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        if (wire == null || outer == null || free == null || solid == null || Double.isNaN(minForce)
+                || Double.isNaN(maxForce) || Double.isNaN(springRate)) {
+            System.err.println("Usage: java SpringDesignSweep wireDiameter=min:max:steps "
+                    + "outerDiameter=min:max:steps freeLength=min:max:steps solidLength=min:max:steps "
+                    + "minForce=value maxForce=value springRate=value [rateTolerance=0.05] [minFactorOfSafety=1.2] "
+                    + "[output=designs.spr] [front=true]");
+            System.exit(1);
+        }
+
+        SpringDesignSweep sweep = new SpringDesignSweep(wire, outer, free, solid, minForce, maxForce, springRate,
+                rateTolerance, minFactorOfSafety);
+        if (output != null) {
+            store(sweep, output);
+            return;
+        }
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out,
+                StandardCharsets.UTF_8)));
+        out.println(CSV_HEADER);
+        if (front) {
+            front(sweep, out);
+            return;
+        }
+        AtomicLong passed = new AtomicLong();
+
+        long startTime = System.nanoTime();
+        sweep.run(ForkJoinPool.commonPool(), designs -> {
+            StringBuilder builder = new StringBuilder(designs.size() * 256);
+            for (Design design : designs) {
+                appendCsv(builder, design);
+            }
+            synchronized (out) {
+                out.write(builder.toString());
+            }
+            passed.addAndGet(designs.size());
+        });
+        out.flush();
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        System.err.printf("Swept %d designs in %.3f s (%.0f designs/sec), %d passed%n", sweep.gridSize(), seconds,
+                sweep.gridSize() / seconds, passed.get());
+    }
+
+    private static void appendCsv(StringBuilder builder, Design design) {
+        builder.append(design.endType).append(',').append(design.material).append(',')
+                .append(design.peened ? "Peened" : "Unpeened").append(',').append(design.wireDiameter)
+                .append(',').append(design.outerDiameter).append(',').append(design.freeLength).append(',')
+                .append(design.solidLength).append(',').append(design.totalCoils).append(',')
+                .append(design.activeCoils).append(',').append(design.pitch).append(',')
+                .append(design.springRate).append(',').append(design.forceToSolid).append(',')
+                .append(design.factorOfSafetyAtForceToSolid).append(',').append(design.factorOfSafety)
+                .append('\n');
+    }
+
+    /* Runs the sweep, merging each batch of passing designs into a Pareto front, and prints only the front */
+    private static void front(SpringDesignSweep sweep, PrintWriter out) {
+        SpringParetoFront front = new SpringParetoFront(ForkJoinPool.commonPool());
+        AtomicLong passed = new AtomicLong();
+        long startTime = System.nanoTime();
+        sweep.run(ForkJoinPool.commonPool(), designs -> {
+            front.add(designs);
+            passed.addAndGet(designs.size());
+        });
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        StringBuilder builder = new StringBuilder();
+        for (Design design : front.front()) {
+            appendCsv(builder, design);
+        }
+        out.write(builder.toString());
+        out.flush();
+        System.err.printf("Swept %d designs in %.3f s (%.0f designs/sec), %d passed, %d on the front%n",
+                sweep.gridSize(), seconds, sweep.gridSize() / seconds, passed.get(), front.front().size());
+    }
+
+    /* Runs the sweep into a binary SpringResultStore instead of printing CSV */
+    private static void store(SpringDesignSweep sweep, Path output) throws IOException {
+        AtomicLong passed = new AtomicLong();
+        long startTime = System.nanoTime();
+        SpringCalculator.LoadCase loadCase = SpringCalculator.LoadCase.of(sweep.minForce, sweep.maxForce);
+        try (SpringResultStore.Writer out = new SpringResultStore.Writer(output)) {
+            sweep.run(ForkJoinPool.commonPool(), designs -> {
+                SpringResultStore.Appender appender = out.threadAppender();
+                SpringCalculator.Evaluation evaluation = new SpringCalculator.Evaluation();
+                try {
+                    for (Design design : designs) {
+                        SpringCalculator.evaluate(loadCase, design.material, design.endType, design.peened,
+                                design.wireDiameter, design.outerDiameter, design.freeLength, design.solidLength,
+                                sweep.minForce, sweep.maxForce, evaluation);
+                        appender.append(design.material, design.endType, design.peened, design.wireDiameter,
+                                design.outerDiameter, design.freeLength, design.solidLength, sweep.minForce,
+                                sweep.maxForce, evaluation);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                passed.addAndGet(designs.size());
+            });
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        System.err.printf("Swept %d designs in %.3f s (%.0f designs/sec), %d passed%n", sweep.gridSize(), seconds,
+                sweep.gridSize() / seconds, passed.get());
+    }
+
+    /* Number of points in the full grid */
+    public long gridSize() {
+        return (long) materials.length * endTypes.length
+                * SpringCalculator.peenTypeOptions.length * wireDiameters.steps * outerDiameters.steps
+                * freeLengths.steps * solidLengths.steps;
+    }
+
+    /* Evaluates the whole grid in the common fork-join pool */
+    public List<Design> run() {
+        List<Design> designs = new ArrayList<>();
+        run(ForkJoinPool.commonPool(), batch -> {
+            synchronized (designs) {
+                designs.addAll(batch);
+            }
+        });
+        return designs;
+    }
+
+    /* Evaluates the whole grid, handing each worker's passing designs to the (thread-safe) sink as they are found */
+    public void run(ForkJoinPool pool, Consumer<List<Design>> sink) {
+        int cells = cellCount;
+        int threshold = Math.max(1, cells / (pool.getParallelism() * 16));
+        pool.invoke(new SweepTask(0, cells, threshold, sink));
+    }
+
+    /*
+     * A cell fixes material, wire diameter, outer diameter, and peen type. Material strength and the load factor of
+     * safety only depend on these, so a cell that fails them is rejected before any lengths are visited.
+     */
+    private static int cellCount(Range wireDiameters, Range outerDiameters) {
+        long cells;
+        try {
+            cells = Math.multiplyExact(Math.multiplyExact(Math.multiplyExact((long) materials.length,
+                    wireDiameters.steps), outerDiameters.steps), SpringCalculator.peenTypeOptions.length);
+        } catch (ArithmeticException e) {
+            cells = Long.MAX_VALUE;
+        }
+        if (cells > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many wire and outer diameter steps: the grid has more than "
+                    + Integer.MAX_VALUE + " material, wire diameter, outer diameter, and peen type cells");
+        }
+        return (int) cells;
+    }
+
+    private final class SweepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int start;
+        private final int end;
+        private final int threshold;
+        private final transient Consumer<List<Design>> sink;
+
+        SweepTask(int start, int end, int threshold, Consumer<List<Design>> sink) {
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
+            this.sink = sink;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= threshold) {
+                List<Design> designs = new ArrayList<>();
+                for (int cell = start; cell < end; cell++) {
+                    evaluateCell(cell, designs);
+                    if (designs.size() >= SINK_BATCH_SIZE) {
+                        sink.accept(designs);
+                        designs = new ArrayList<>();
+                    }
+                }
+                if (!designs.isEmpty()) {
+                    sink.accept(designs);
+                }
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new SweepTask(start, middle, threshold, sink), new SweepTask(middle, end, threshold, sink));
+        }
+    }
+
+    private void evaluateCell(int cell, List<Design> designs) {
+        int peenIndex = cell % SpringCalculator.peenTypeOptions.length;
+        cell /= SpringCalculator.peenTypeOptions.length;
+        int outerIndex = cell % outerDiameters.steps;
+        cell /= outerDiameters.steps;
+        int wireIndex = cell % wireDiameters.steps;
+        int materialIndex = cell / wireDiameters.steps;
+
+        SpringCalculator.Material material = materials[materialIndex];
+        boolean peened = SpringCalculator.peenTypeOptions[peenIndex].equals("Peened");
+        double wireDiameter = wireDiameters.value(wireIndex);
+        double outerDiameter = outerDiameters.value(outerIndex);
+        double coilDiameter = outerDiameter - wireDiameter;
+
+        // The Bergstrasser factor is only meaningful while 4C - 3 > 0
+        double springIndex = coilDiameter / wireDiameter;
+        if (!(wireDiameter > 0) || !((4 * springIndex) - 3 > 0)) {
+            return;
+        }
+
+        double ultimateTensileStrength = material.ultimateTensileStrength(wireDiameter);
+        double yieldStrengthShear = material.shearYieldRatio * ultimateTensileStrength;
+        double G = material.modulusOfRigidity(wireDiameter);
+        // Wire diameters outside the material's tabulated range give no strength, and the Zimmerli endurance
+        // strength is only positive while Ssu is above the intercept used in calculateFatigueFactorOfSafety
+        if (!(ultimateTensileStrength > 0)
+                || (cyclic && !(0.67 * ultimateTensileStrength > (peened ? 77.5 : 55) * 1000))) {
+            return;
+        }
+
+        double factorOfSafety = cyclic
+                ? SpringCalculator.calculateFatigueFactorOfSafety(coilDiameter, wireDiameter, minForce, maxForce,
+                        ultimateTensileStrength, peened)
+                : SpringCalculator.calculateStaticFactorOfSafety(minForce, yieldStrengthShear, coilDiameter,
+                        wireDiameter);
+        if (!(factorOfSafety >= minFactorOfSafety)) {
+            return;
+        }
+
+        for (SpringCalculator.EndType endType : endTypes) {
+            for (int solidIndex = 0; solidIndex < solidLengths.steps; solidIndex++) {
+                double solidLength = solidLengths.value(solidIndex);
+                double totalCoils = endType.totalCoils(wireDiameter, solidLength);
+                double activeCoils = endType.activeCoils(totalCoils);
+                if (!(activeCoils > 0)) {
+                    continue;
+                }
+
+                double springRate = SpringCalculator.calculateSpringRate(wireDiameter, G, coilDiameter,
+                        activeCoils);
+                if (springRate < minSpringRate || springRate > maxSpringRate) {
+                    continue;
+                }
+
+                // Free lengths ascend, so the force to solid only grows and the factor of safety only shrinks
+                for (int freeIndex = 0; freeIndex < freeLengths.steps; freeIndex++) {
+                    double freeLength = freeLengths.value(freeIndex);
+                    if (freeLength <= solidLength) {
+                        continue;
+                    }
+
+                    double forceToSolid = SpringCalculator.calculateForceToSolid(springRate, freeLength,
+                            solidLength);
+                    double factorOfSafetyAtForceToSolid = SpringCalculator.calculateFactorOfSafetyAtForceToSolid(
+                            forceToSolid, yieldStrengthShear, coilDiameter, wireDiameter);
+                    if (factorOfSafetyAtForceToSolid < minFactorOfSafety) {
+                        break;
+                    }
+
+                    double pitch = endType.pitch(wireDiameter, freeLength, activeCoils);
+                    designs.add(new Design(endType, material, peened, wireDiameter, outerDiameter, freeLength,
+                            solidLength, totalCoils, activeCoils, pitch, springRate, forceToSolid,
+                            factorOfSafetyAtForceToSolid, factorOfSafety));
+                }
+            }
+        }
+    }
+}
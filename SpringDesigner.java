@@ -0,0 +1,515 @@
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.geom.Path2D;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ME 35401 - Spring Calculator (Designer)
+ *
+ * This program shows every input and result of the spring calculator in a single window that updates as you type.
+ * Edits are debounced and recalculated on a background thread, never on the Event Dispatch Thread, and only the
+ * quantities that depend on the changed field are recalculated: for example, changing a force reuses the material
+ * and dimensional values. Two plots show the spring force against deflection up to solid length, and both factors of
+ * safety against wire diameter around the current design.
+ *
+ */
+
+public class SpringDesigner extends JFrame {
+    private static final long serialVersionUID = 1L;
+    private static final long DEBOUNCE_MILLIS = 150;
+    private static final int PLOT_POINTS = 2000;
+
+    // Wire diameters in the factor of safety plot span this fraction either side of the current wire diameter
+    private static final double PLOT_WIRE_DIAMETER_SPAN = 0.5;
+
+    private static final Color FACTOR_OF_SAFETY_COLOR = new Color(0, 90, 180);
+    private static final Color SOLID_FACTOR_OF_SAFETY_COLOR = new Color(200, 80, 0);
+
+    private final JComboBox<String> endTypeInput = new JComboBox<>(SpringCalculator.endTypeOptions);
+    private final JComboBox<String> materialTypeInput = new JComboBox<>(SpringCalculator.materialTypeOptions);
+    private final JComboBox<String> peenTypeInput = new JComboBox<>(SpringCalculator.peenTypeOptions);
+    private final JTextField wireDiameterInput = new JTextField("0.08", 8);
+    private final JTextField outerDiameterInput = new JTextField("0.6", 8);
+    private final JTextField freeLengthInput = new JTextField("2.5", 8);
+    private final JTextField solidLengthInput = new JTextField("1.0", 8);
+    private final JTextField minForceInput = new JTextField("10", 8);
+    private final JTextField maxForceInput = new JTextField("30", 8);
+
+    private final JLabel pitchOutput = new JLabel();
+    private final JLabel totalCoilsOutput = new JLabel();
+    private final JLabel activeCoilsOutput = new JLabel();
+    private final JLabel springRateOutput = new JLabel();
+    private final JLabel forceToSolidOutput = new JLabel();
+    private final JLabel factorOfSafetyAtForceToSolidOutput = new JLabel();
+    private final JLabel factorOfSafetyLabel = new JLabel();
+    private final JLabel factorOfSafetyOutput = new JLabel();
+
+    private final PlotPanel forcePlot = new PlotPanel("Force vs. Deflection (slope is spring rate)",
+            "Deflection (in)", "Force (lbf)");
+    private final PlotPanel factorOfSafetyPlot = new PlotPanel("Factor of Safety vs. Wire Diameter",
+            "Wire Diameter (in)", "Factor of Safety");
+
+    private final ScheduledExecutorService calculator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "spring-designer-calculator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Recalculator recalculator = new Recalculator();
+    private ScheduledFuture<?> pendingCalculation;
+    private long generation;
+
+    public SpringDesigner() {
+        super("Spring Calculator");
+        setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+
+        JPanel form = new JPanel(new GridBagLayout());
+        form.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+        int row = 0;
+        row = addRow(form, row, "End type", endTypeInput);
+        row = addRow(form, row, "Material type", materialTypeInput);
+        row = addRow(form, row, "Peen type", peenTypeInput);
+        row = addRow(form, row, "Wire diameter (in)", wireDiameterInput);
+        row = addRow(form, row, "Outer diameter (in)", outerDiameterInput);
+        row = addRow(form, row, "Free length (in)", freeLengthInput);
+        row = addRow(form, row, "Solid length (in)", solidLengthInput);
+        row = addRow(form, row, "Min force (lbf)", minForceInput);
+        row = addRow(form, row, "Max force (lbf)", maxForceInput);
+        row = addRow(form, row, " ", new JLabel());
+        row = addRow(form, row, "Pitch", pitchOutput);
+        row = addRow(form, row, "Total coils", totalCoilsOutput);
+        row = addRow(form, row, "Active coils", activeCoilsOutput);
+        row = addRow(form, row, "Spring rate", springRateOutput);
+        row = addRow(form, row, "Force to compress to solid length", forceToSolidOutput);
+        row = addRow(form, row, "Factor of safety at solid length", factorOfSafetyAtForceToSolidOutput);
+        addRow(form, row, factorOfSafetyLabel, factorOfSafetyOutput);
+
+        JPanel plots = new JPanel(new GridLayout(2, 1, 0, 8));
+        plots.add(forcePlot);
+        plots.add(factorOfSafetyPlot);
+        plots.setPreferredSize(new Dimension(560, 560));
+
+        getContentPane().add(form, BorderLayout.WEST);
+        getContentPane().add(plots, BorderLayout.CENTER);
+        pack();
+        setLocationRelativeTo(null);
+
+        DocumentListener documentListener = new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) {
+                scheduleCalculation();
+            }
+
+            public void removeUpdate(DocumentEvent e) {
+                scheduleCalculation();
+            }
+
+            public void changedUpdate(DocumentEvent e) {
+                scheduleCalculation();
+            }
+        };
+        for (JTextField field : new JTextField[] {wireDiameterInput, outerDiameterInput, freeLengthInput,
+                solidLengthInput, minForceInput, maxForceInput}) {
+            field.getDocument().addDocumentListener(documentListener);
+        }
+        endTypeInput.addActionListener(e -> scheduleCalculation());
+        materialTypeInput.addActionListener(e -> scheduleCalculation());
+        peenTypeInput.addActionListener(e -> scheduleCalculation());
+
+        scheduleCalculation();
+    }
+
+    public static void main(String[] args) {
+        SwingUtilities.invokeLater(() -> new SpringDesigner().setVisible(true));
+    }
+
+    private static int addRow(JPanel form, int row, String label, JComponent component) {
+        return addRow(form, row, new JLabel(label), component);
+    }
+
+    private static int addRow(JPanel form, int row, JLabel label, JComponent component) {
+        GridBagConstraints constraints = new GridBagConstraints();
+        constraints.gridy = row;
+        constraints.anchor = GridBagConstraints.WEST;
+        constraints.insets = new Insets(2, 2, 2, 8);
+        form.add(label, constraints);
+        constraints.gridx = 1;
+        constraints.fill = GridBagConstraints.HORIZONTAL;
+        form.add(component, constraints);
+        return row + 1;
+    }
+
+    /* Reads the form on the EDT and queues a recalculation, replacing any that has not started yet */
+    private void scheduleCalculation() {
+        Inputs inputs = readInputs();
+        long currentGeneration = ++generation;
+        if (pendingCalculation != null) {
+            pendingCalculation.cancel(false);
+        }
+        if (inputs == null) {
+            return;
+        }
+
+        pendingCalculation = calculator.schedule(() -> {
+            Results results = recalculator.recalculate(inputs);
+            SwingUtilities.invokeLater(() -> {
+                // Drop results for inputs that have since changed
+                if (currentGeneration == generation) {
+                    show(results);
+                }
+            });
+        }, DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /* Reads every input, marking invalid numbers in red; returns null if any are invalid */
+    private Inputs readInputs() {
+        double wireDiameter = readNumber(wireDiameterInput, false);
+        double outerDiameter = readNumber(outerDiameterInput, false);
+        double freeLength = readNumber(freeLengthInput, false);
+        double solidLength = readNumber(solidLengthInput, false);
+        double minForce = readNumber(minForceInput, true);
+        double maxForce = readNumber(maxForceInput, true);
+        if (Double.isNaN(wireDiameter) || Double.isNaN(outerDiameter) || Double.isNaN(freeLength)
+                || Double.isNaN(solidLength) || Double.isNaN(minForce) || Double.isNaN(maxForce)) {
+            return null;
+        }
+
+        return new Inputs(SpringCalculator.Material.fromDisplayName((String) materialTypeInput.getSelectedItem()),
+                SpringCalculator.EndType.fromDisplayName((String) endTypeInput.getSelectedItem()),
+                "Peened".equals(peenTypeInput.getSelectedItem()), wireDiameter, outerDiameter, freeLength,
+                solidLength, minForce, maxForce);
+    }
+
+    /* Same rules as the input dialogs: lengths must not be negative, forces may be */
+    private static double readNumber(JTextField field, boolean allowNegative) {
+        double value;
+        try {
+            value = Double.parseDouble(field.getText().trim());
+            if (!allowNegative && value < 0) {
+                value = Double.NaN;
+            }
+        } catch (NumberFormatException e) {
+            value = Double.NaN;
+        }
+        field.setForeground(Double.isNaN(value) ? Color.RED : UIManager.getColor("TextField.foreground"));
+        return value;
+    }
+
+    private void show(Results results) {
+        SpringCalculator.Evaluation evaluation = results.evaluation;
+        pitchOutput.setText(String.format("%.3f in", evaluation.pitch));
+        totalCoilsOutput.setText(String.format("%.3f coils", evaluation.totalCoils));
+        activeCoilsOutput.setText(String.format("%.3f coils", evaluation.activeCoils));
+        springRateOutput.setText(String.format("%.3f lbf/in", evaluation.springRate));
+        forceToSolidOutput.setText(String.format("%.3f lbf", evaluation.forceToSolid));
+        factorOfSafetyAtForceToSolidOutput.setText(String.format("%.1f", evaluation.factorOfSafetyAtForceToSolid));
+        factorOfSafetyLabel.setText(evaluation.cyclic ? "Factor of safety for infinite life"
+                : "Factor of safety for static load");
+        factorOfSafetyOutput.setText(String.format("%.1f", evaluation.factorOfSafety));
+
+        forcePlot.setData(results.deflections, new double[][] {results.forces},
+                new Color[] {FACTOR_OF_SAFETY_COLOR}, Double.NaN, Double.NaN);
+        factorOfSafetyPlot.setData(results.plotWireDiameters,
+                new double[][] {results.plotFactorsOfSafety, results.plotFactorsOfSafetyAtForceToSolid},
+                new Color[] {FACTOR_OF_SAFETY_COLOR, SOLID_FACTOR_OF_SAFETY_COLOR}, 1, results.wireDiameter);
+    }
+
+    /* One snapshot of the form */
+    static final class Inputs {
+        final SpringCalculator.Material material;
+        final SpringCalculator.EndType endType;
+        final boolean peened;
+        final double wireDiameter;
+        final double outerDiameter;
+        final double freeLength;
+        final double solidLength;
+        final double minForce;
+        final double maxForce;
+
+        Inputs(SpringCalculator.Material material, SpringCalculator.EndType endType, boolean peened,
+               double wireDiameter, double outerDiameter, double freeLength, double solidLength, double minForce,
+               double maxForce) {
+            this.material = material;
+            this.endType = endType;
+            this.peened = peened;
+            this.wireDiameter = wireDiameter;
+            this.outerDiameter = outerDiameter;
+            this.freeLength = freeLength;
+            this.solidLength = solidLength;
+            this.minForce = minForce;
+            this.maxForce = maxForce;
+        }
+    }
+
+    /* Everything the window shows for one snapshot; owned by the EDT once published */
+    static final class Results {
+        final double wireDiameter;
+        final SpringCalculator.Evaluation evaluation;
+        final double[] deflections;
+        final double[] forces;
+        final double[] plotWireDiameters;
+        final double[] plotFactorsOfSafety;
+        final double[] plotFactorsOfSafetyAtForceToSolid;
+
+        Results(double wireDiameter, SpringCalculator.Evaluation evaluation, double[] deflections, double[] forces,
+                double[] plotWireDiameters, double[] plotFactorsOfSafety,
+                double[] plotFactorsOfSafetyAtForceToSolid) {
+            this.wireDiameter = wireDiameter;
+            this.evaluation = evaluation;
+            this.deflections = deflections;
+            this.forces = forces;
+            this.plotWireDiameters = plotWireDiameters;
+            this.plotFactorsOfSafety = plotFactorsOfSafety;
+            this.plotFactorsOfSafetyAtForceToSolid = plotFactorsOfSafetyAtForceToSolid;
+        }
+    }
+
+    /*
+     * Recalculates only the stages whose inputs changed since the last call. Material values depend on the material
+     * and wire diameter, dimensional values on the end type, wire diameter, and lengths, and the rest on everything.
+     * The wire diameter plot is layered the same way. Only used from the calculator thread.
+     */
+    static final class Recalculator {
+        private Inputs last;
+        int materialCalculations;
+        int dimensionalCalculations;
+
+        // Material stage
+        private double ultimateTensileStrength;
+        private double yieldStrength;
+        private double yieldStrengthShear;
+        private double E;
+        private double G;
+        private final double[] plotWireDiameters = new double[PLOT_POINTS];
+        private final double[] plotUltimateTensileStrengths = new double[PLOT_POINTS];
+        private final double[] plotShearModuli = new double[PLOT_POINTS];
+
+        // Dimensional stage
+        private double totalCoils;
+        private double activeCoils;
+        private double pitch;
+        private final double[] plotActiveCoils = new double[PLOT_POINTS];
+
+        Results recalculate(Inputs inputs) {
+            boolean materialChanged = last == null || inputs.material != last.material
+                    || inputs.wireDiameter != last.wireDiameter;
+            boolean dimensionsChanged = last == null || inputs.endType != last.endType
+                    || inputs.wireDiameter != last.wireDiameter || inputs.freeLength != last.freeLength
+                    || inputs.solidLength != last.solidLength;
+            boolean plotDimensionsChanged = last == null || inputs.endType != last.endType
+                    || inputs.wireDiameter != last.wireDiameter || inputs.solidLength != last.solidLength;
+            last = inputs;
+
+            if (materialChanged) {
+                calculateMaterial(inputs);
+            }
+            if (dimensionsChanged) {
+                calculateDimensions(inputs, plotDimensionsChanged);
+            }
+
+            // Rate, force, and factors of safety depend on every input
+            SpringCalculator.Evaluation evaluation = new SpringCalculator.Evaluation();
+            evaluation.ultimateTensileStrength = ultimateTensileStrength;
+            evaluation.yieldStrength = yieldStrength;
+            evaluation.yieldStrengthShear = yieldStrengthShear;
+            evaluation.E = E;
+            evaluation.G = G;
+            evaluation.totalCoils = totalCoils;
+            evaluation.activeCoils = activeCoils;
+            evaluation.pitch = pitch;
+
+            double coilDiameter = inputs.outerDiameter - inputs.wireDiameter;
+            evaluation.springRate = SpringCalculator.calculateSpringRate(inputs.wireDiameter, G, coilDiameter,
+                    activeCoils);
+            evaluation.forceToSolid = SpringCalculator.calculateForceToSolid(evaluation.springRate,
+                    inputs.freeLength, inputs.solidLength);
+            evaluation.factorOfSafetyAtForceToSolid = SpringCalculator.calculateFactorOfSafetyAtForceToSolid(
+                    evaluation.forceToSolid, yieldStrengthShear, coilDiameter, inputs.wireDiameter);
+            evaluation.cyclic = Math.abs(inputs.maxForce - inputs.minForce) >= 0.000001d;
+            evaluation.factorOfSafety = factorOfSafety(inputs, inputs.wireDiameter, ultimateTensileStrength,
+                    yieldStrengthShear, evaluation.cyclic);
+
+            double[] deflections = new double[PLOT_POINTS];
+            double[] forces = new double[PLOT_POINTS];
+            double solidDeflection = inputs.freeLength - inputs.solidLength;
+            for (int i = 0; i < PLOT_POINTS; i++) {
+                deflections[i] = (solidDeflection * i) / (PLOT_POINTS - 1);
+                forces[i] = evaluation.springRate * deflections[i];
+            }
+
+            double[] plotFactorsOfSafety = new double[PLOT_POINTS];
+            double[] plotFactorsOfSafetyAtForceToSolid = new double[PLOT_POINTS];
+            for (int i = 0; i < PLOT_POINTS; i++) {
+                double wireDiameter = plotWireDiameters[i];
+                double plotCoilDiameter = inputs.outerDiameter - wireDiameter;
+                double plotYieldStrengthShear = inputs.material.shearYieldRatio * plotUltimateTensileStrengths[i];
+                double springRate = SpringCalculator.calculateSpringRate(wireDiameter, plotShearModuli[i],
+                        plotCoilDiameter, plotActiveCoils[i]);
+                double forceToSolid = SpringCalculator.calculateForceToSolid(springRate, inputs.freeLength,
+                        inputs.solidLength);
+                plotFactorsOfSafetyAtForceToSolid[i] = SpringCalculator.calculateFactorOfSafetyAtForceToSolid(
+                        forceToSolid, plotYieldStrengthShear, plotCoilDiameter, wireDiameter);
+                plotFactorsOfSafety[i] = factorOfSafety(inputs, wireDiameter, plotUltimateTensileStrengths[i],
+                        plotYieldStrengthShear, evaluation.cyclic);
+            }
+
+            return new Results(inputs.wireDiameter, evaluation, deflections, forces, plotWireDiameters.clone(),
+                    plotFactorsOfSafety, plotFactorsOfSafetyAtForceToSolid);
+        }
+
+        private void calculateMaterial(Inputs inputs) {
+            materialCalculations++;
+            double[] materialInfo = SpringCalculator.calculateMaterialInfo(inputs.material.displayName,
+                    inputs.wireDiameter);
+            ultimateTensileStrength = materialInfo[0];
+            yieldStrength = materialInfo[1];
+            yieldStrengthShear = materialInfo[2];
+            E = materialInfo[3];
+            G = materialInfo[4];
+
+            double low = inputs.wireDiameter * (1 - PLOT_WIRE_DIAMETER_SPAN);
+            double high = inputs.wireDiameter * (1 + PLOT_WIRE_DIAMETER_SPAN);
+            for (int i = 0; i < PLOT_POINTS; i++) {
+                double wireDiameter = low + (((high - low) * i) / (PLOT_POINTS - 1));
+                plotWireDiameters[i] = wireDiameter;
+                plotUltimateTensileStrengths[i] = inputs.material.ultimateTensileStrength(wireDiameter);
+                plotShearModuli[i] = inputs.material.modulusOfRigidity(wireDiameter);
+            }
+        }
+
+        private void calculateDimensions(Inputs inputs, boolean plotDimensionsChanged) {
+            dimensionalCalculations++;
+            double[] dimensionalInfo = SpringCalculator.calculateDimensionalInfo(inputs.endType.displayName,
+                    inputs.wireDiameter, inputs.freeLength, inputs.solidLength);
+            totalCoils = dimensionalInfo[0];
+            activeCoils = dimensionalInfo[1];
+            pitch = dimensionalInfo[2];
+
+            // The plot keeps the solid length, so the number of coils changes with the wire diameter
+            if (plotDimensionsChanged) {
+                for (int i = 0; i < PLOT_POINTS; i++) {
+                    plotActiveCoils[i] = inputs.endType.activeCoils(
+                            inputs.endType.totalCoils(plotWireDiameters[i], inputs.solidLength));
+                }
+            }
+        }
+
+        private static double factorOfSafety(Inputs inputs, double wireDiameter, double ultimateTensileStrength,
+                                             double yieldStrengthShear, boolean cyclic) {
+            double coilDiameter = inputs.outerDiameter - wireDiameter;
+            if (cyclic) {
+                return SpringCalculator.calculateFatigueFactorOfSafety(coilDiameter, wireDiameter, inputs.minForce,
+                        inputs.maxForce, ultimateTensileStrength, inputs.peened);
+            }
+            return SpringCalculator.calculateStaticFactorOfSafety(inputs.minForce, yieldStrengthShear, coilDiameter,
+                    wireDiameter);
+        }
+    }
+
+    /* Line plot of one or more series against a shared x axis */
+    private static final class PlotPanel extends JPanel {
+        private static final long serialVersionUID = 1L;
+        private static final int MARGIN = 48;
+
+        private final String title;
+        private final String xLabel;
+        private final String yLabel;
+        private double[] x = new double[0];
+        private double[][] ys = new double[0][];
+        private Color[] colors = new Color[0];
+        private double referenceY = Double.NaN;
+        private double markerX = Double.NaN;
+
+        PlotPanel(String title, String xLabel, String yLabel) {
+            this.title = title;
+            this.xLabel = xLabel;
+            this.yLabel = yLabel;
+            setBackground(Color.WHITE);
+        }
+
+        void setData(double[] x, double[][] ys, Color[] colors, double referenceY, double markerX) {
+            this.x = x;
+            this.ys = ys;
+            this.colors = colors;
+            this.referenceY = referenceY;
+            this.markerX = markerX;
+            repaint();
+        }
+
+        @Override
+        protected void paintComponent(Graphics graphics) {
+            super.paintComponent(graphics);
+            Graphics2D g = (Graphics2D) graphics;
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            int width = getWidth() - (2 * MARGIN);
+            int height = getHeight() - (2 * MARGIN);
+
+            g.setColor(Color.BLACK);
+            g.drawString(title, MARGIN, MARGIN / 2);
+            g.drawString(xLabel, MARGIN + (width / 2) - 40, getHeight() - 8);
+            g.drawString(yLabel, 4, MARGIN - 8);
+            g.drawRect(MARGIN, MARGIN, width, height);
+            if (x.length < 2 || width <= 0 || height <= 0) {
+                return;
+            }
+
+            double minX = x[0];
+            double maxX = x[x.length - 1];
+            double minY = Double.POSITIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (double[] y : ys) {
+                for (double value : y) {
+                    if (Double.isFinite(value)) {
+                        minY = Math.min(minY, value);
+                        maxY = Math.max(maxY, value);
+                    }
+                }
+            }
+            if (!(maxY > minY) || !(maxX > minX)) {
+                return;
+            }
+            minY = Math.min(minY, 0);
+
+            g.drawString(String.format("%.3g", minX), MARGIN, MARGIN + height + 16);
+            g.drawString(String.format("%.3g", maxX), MARGIN + width - 30, MARGIN + height + 16);
+            g.drawString(String.format("%.3g", minY), 4, MARGIN + height);
+            g.drawString(String.format("%.3g", maxY), 4, MARGIN + 12);
+
+            if (Double.isFinite(referenceY) && referenceY > minY && referenceY < maxY) {
+                g.setColor(Color.GRAY);
+                int y = MARGIN + (int) (height * (maxY - referenceY) / (maxY - minY));
+                g.drawLine(MARGIN, y, MARGIN + width, y);
+            }
+            if (Double.isFinite(markerX) && markerX > minX && markerX < maxX) {
+                g.setColor(Color.GRAY);
+                int markerPosition = MARGIN + (int) (width * (markerX - minX) / (maxX - minX));
+                g.drawLine(markerPosition, MARGIN, markerPosition, MARGIN + height);
+            }
+
+            for (int series = 0; series < ys.length; series++) {
+                double[] y = ys[series];
+                Path2D.Double path = new Path2D.Double();
+                boolean drawing = false;
+                for (int i = 0; i < x.length; i++) {
+                    if (!Double.isFinite(y[i])) {
+                        drawing = false;
+                        continue;
+                    }
+                    double px = MARGIN + (width * (x[i] - minX) / (maxX - minX));
+                    double py = MARGIN + (height * (maxY - y[i]) / (maxY - minY));
+                    if (drawing) {
+                        path.lineTo(px, py);
+                    } else {
+                        path.moveTo(px, py);
+                        drawing = true;
+                    }
+                }
+                g.setColor(colors[series]);
+                g.draw(path);
+            }
+        }
+    }
+}
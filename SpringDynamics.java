@@ -0,0 +1,270 @@
+/**
+ * ME 35401 - Spring Calculator (Dynamics)
+ *
+ * This program checks a spring in cyclic machinery. It calculates the spring's fundamental surge frequency, which
+ * should be at least SURGE_FREQUENCY_RATIO times the forcing frequency so that the coils do not resonate, and then
+ * simulates the spring carrying a load as a mass-spring-damper driven by a forcing profile. The effective mass is
+ * the load plus a third of the active coils' weight.
+ *
+ * The simulation uses a fixed time step. Because the system is linear, the exact state transition over one step
+ * (a matrix exponential) is calculated once up front, with the force held at its value at the middle of each step.
+ * Every step is then a handful of multiply-adds with no allocation, and the result is stable for any step size. The
+ * lowest and highest spring forces reached are fed into calculateFatigueFactorOfSafety, so resonance shows up as a
+ * lower factor of safety than the quasi-static min and max forces would give.
+ *
+ * Usage: java SpringDynamics material=... endType=... peened=true|false wireDiameter=value outerDiameter=value
+ *        freeLength=value solidLength=value minForce=value maxForce=value frequency=value [loadWeight=0]
+ *        [dampingRatio=0.02] [duration=1] [settleTime=0] [timeStep=value]
+ *
+ */
+
+public class SpringDynamics {
+    // Shigley's rule of thumb: the surge frequency should be 15 to 20 times the forcing frequency
+    public static final double SURGE_FREQUENCY_RATIO = 20;
+
+    // Default time steps resolve the forcing and the natural frequency with at least this many steps per period
+    private static final int FORCING_STEPS_PER_PERIOD = 200;
+    private static final int NATURAL_STEPS_PER_PERIOD = 50;
+
+    public final double wireDiameter;
+    public final double coilDiameter;
+    public final double ultimateTensileStrength;
+    public final boolean peened;
+    public final double activeCoils;
+    public final double springRate;
+    public final double springWeight;
+    public final double surgeFrequency;
+    public final double mass;
+    public final double naturalFrequency;
+    public final double deflectionToSolid;
+    public final double timeStep;
+
+    // One step of x' = phi x + gamma F, for the state x = (deflection, velocity)
+    private final double phi00, phi01, phi10, phi11;
+    private final double gamma0, gamma1;
+
+    /* A force (lbf) on the load as a function of time (s) */
+    public interface Forcing {
+        double force(double time);
+
+        /* A force oscillating sinusoidally between min and max at the given frequency (Hz), starting at the mean */
+        static Forcing sine(double minForce, double maxForce, double frequency) {
+            double mean = (maxForce + minForce) / 2;
+            double amplitude = (maxForce - minForce) / 2;
+            double angularFrequency = 2 * Math.PI * frequency;
+            return time -> mean + (amplitude * Math.sin(angularFrequency * time));
+        }
+
+        /* A measured force history sampled at the given rate (Hz), linearly interpolated and repeated */
+        static Forcing sampled(double[] forces, double sampleRate) {
+            int length = forces.length;
+            return time -> {
+                double position = time * sampleRate;
+                double floor = Math.floor(position);
+                int index = (int) (floor % length);
+                double fraction = position - floor;
+                return forces[index] + (fraction * (forces[(index + 1 == length) ? 0 : index + 1] - forces[index]));
+            };
+        }
+    }
+
+    /* Peak values from one simulation; reused across runs so that simulating allocates nothing */
+    public static final class Result {
+        public long steps;
+        public double minForce;
+        public double maxForce;
+        public double minDeflection;
+        public double maxDeflection;
+        public boolean reachedSolid;
+        public double factorOfSafety;
+    }
+
+    /*
+     * The load's weight (lbf) hangs on or rests against the spring; the damping ratio is the fraction of critical
+     * damping. A timeStep of NaN picks one from the natural frequency.
+     */
+    public SpringDynamics(SpringCalculator.Material material, SpringCalculator.EndType endType, boolean peened,
+                          double wireDiameter, double outerDiameter, double freeLength, double solidLength,
+                          double loadWeight, double dampingRatio, double timeStep) {
+        this.wireDiameter = wireDiameter;
+        this.coilDiameter = outerDiameter - wireDiameter;
+        this.peened = peened;
+        double[] materialInfo = SpringCalculator.calculateMaterialInfo(material.displayName, wireDiameter);
+        double[] dimensionalInfo = SpringCalculator.calculateDimensionalInfo(endType.displayName, wireDiameter,
+                freeLength, solidLength);
+        ultimateTensileStrength = materialInfo[0];
+        activeCoils = dimensionalInfo[1];
+        springRate = SpringCalculator.calculateSpringRate(wireDiameter, materialInfo[4], coilDiameter, activeCoils);
+        springWeight = SpringCalculator.calculateSpringWeight(wireDiameter, coilDiameter, activeCoils,
+                materialInfo[5]);
+        surgeFrequency = SpringCalculator.calculateSurgeFrequency(springRate, springWeight);
+        mass = (loadWeight + (springWeight / 3)) / SpringCalculator.GRAVITY;
+        naturalFrequency = Math.sqrt(springRate / mass) / (2 * Math.PI);
+        deflectionToSolid = freeLength - solidLength;
+        if (!(springRate > 0) || !(mass > 0)) {
+            throw new IllegalArgumentException("Spring has no stiffness or no mass");
+        }
+
+        this.timeStep = Double.isNaN(timeStep) ? 1 / (NATURAL_STEPS_PER_PERIOD * naturalFrequency) : timeStep;
+        double damping = 2 * dampingRatio * Math.sqrt(springRate * mass);
+        // Augmenting the state with the force held over the step gives the force response in the third column
+        double[] system = {
+                0, 1, 0,
+                -springRate / mass, -damping / mass, 1 / mass,
+                0, 0, 0};
+        for (int i = 0; i < system.length; i++) {
+            system[i] *= this.timeStep;
+        }
+        double[] transition = exponential(system);
+        phi00 = transition[0];
+        phi01 = transition[1];
+        gamma0 = transition[2];
+        phi10 = transition[3];
+        phi11 = transition[4];
+        gamma1 = transition[5];
+    }
+
+    public static void main(String[] args) {
+        SpringCalculator.Material material = null;
+        SpringCalculator.EndType endType = null;
+        boolean peened = false;
+        double wireDiameter = Double.NaN, outerDiameter = Double.NaN, freeLength = Double.NaN;
+        double solidLength = Double.NaN, minForce = Double.NaN, maxForce = Double.NaN, frequency = Double.NaN;
+        double loadWeight = 0, dampingRatio = 0.02, duration = 1, settleTime = 0, timeStep = Double.NaN;
+
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            switch (pair[0]) {
+                case "material" -> material = SpringCalculator.Material.fromDisplayName(pair[1]);
+                case "endType" -> endType = SpringCalculator.EndType.fromDisplayName(pair[1]);
+                case "peened" -> peened = SpringBatchCalculator.parsePeenType(pair[1]);
+                case "wireDiameter" -> wireDiameter = Double.parseDouble(pair[1]);
+                case "outerDiameter" -> outerDiameter = Double.parseDouble(pair[1]);
+                case "freeLength" -> freeLength = Double.parseDouble(pair[1]);
+                case "solidLength" -> solidLength = Double.parseDouble(pair[1]);
+                case "minForce" -> minForce = Double.parseDouble(pair[1]);
+                case "maxForce" -> maxForce = Double.parseDouble(pair[1]);
+                case "frequency" -> frequency = Double.parseDouble(pair[1]);
+                case "loadWeight" -> loadWeight = Double.parseDouble(pair[1]);
+                case "dampingRatio" -> dampingRatio = Double.parseDouble(pair[1]);
+                case "duration" -> duration = Double.parseDouble(pair[1]);
+                case "settleTime" -> settleTime = Double.parseDouble(pair[1]);
+                case "timeStep" -> timeStep = Double.parseDouble(pair[1]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        if (material == null || endType == null || Double.isNaN(wireDiameter) || Double.isNaN(outerDiameter)
+                || Double.isNaN(freeLength) || Double.isNaN(solidLength) || Double.isNaN(minForce)
+                || Double.isNaN(maxForce) || Double.isNaN(frequency)) {
+            System.err.println("Usage: java SpringDynamics material=... endType=... peened=true|false "
+                    + "wireDiameter=value outerDiameter=value freeLength=value solidLength=value minForce=value "
+                    + "maxForce=value frequency=value [loadWeight=0] [dampingRatio=0.02] [duration=1] "
+                    + "[settleTime=0] [timeStep=value]");
+            System.exit(1);
+        }
+
+        if (Double.isNaN(timeStep)) {
+            SpringDynamics probe = new SpringDynamics(material, endType, peened, wireDiameter, outerDiameter,
+                    freeLength, solidLength, loadWeight, dampingRatio, Double.NaN);
+            timeStep = Math.min(probe.timeStep, 1 / (FORCING_STEPS_PER_PERIOD * frequency));
+        }
+        SpringDynamics dynamics = new SpringDynamics(material, endType, peened, wireDiameter, outerDiameter,
+                freeLength, solidLength, loadWeight, dampingRatio, timeStep);
+        Result result = new Result();
+        long startTime = System.nanoTime();
+        dynamics.simulate(Forcing.sine(minForce, maxForce, frequency), duration, settleTime, result);
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        double quasiStaticFactorOfSafety = SpringCalculator.calculateFatigueFactorOfSafety(dynamics.coilDiameter,
+                wireDiameter, minForce, maxForce, dynamics.ultimateTensileStrength, peened);
+
+        System.out.printf("Spring Rate: %.3f lbf/in%nSpring Weight: %.5f lbf%nSurge Frequency: %.1f Hz%n"
+                        + "Surge Frequency / Forcing Frequency: %.1f%s%nNatural Frequency with Load: %.1f Hz%n"
+                        + "Lowest Spring Force: %.3f lbf%nHighest Spring Force: %.3f lbf%nReached Solid Length: %s%n"
+                        + "Factor of Safety (quasi-static): %.3f%nFactor of Safety (dynamic): %.3f%n",
+                dynamics.springRate, dynamics.springWeight, dynamics.surgeFrequency,
+                dynamics.surgeFrequency / frequency,
+                (dynamics.surgeFrequency < SURGE_FREQUENCY_RATIO * frequency) ? " (risk of surge)" : "",
+                dynamics.naturalFrequency, result.minForce, result.maxForce, result.reachedSolid ? "Yes" : "No",
+                quasiStaticFactorOfSafety, result.factorOfSafety);
+        System.err.printf("Simulated %d steps in %.3f s (%.0f steps/sec)%n", result.steps, seconds,
+                result.steps / seconds);
+    }
+
+    /*
+     * Simulates from static equilibrium under the initial force for the given duration (s), recording spring force
+     * peaks after settleTime (s), and fills the caller-owned result
+     */
+    public Result simulate(Forcing forcing, double duration, double settleTime, Result result) {
+        long steps = (long) Math.ceil(duration / timeStep);
+        long settleSteps = (long) Math.ceil(settleTime / timeStep);
+        double deflection = forcing.force(0) / springRate;
+        double velocity = 0;
+        double minDeflection = Double.POSITIVE_INFINITY;
+        double maxDeflection = Double.NEGATIVE_INFINITY;
+        double halfStep = timeStep / 2;
+
+        for (long step = 0; step < steps; step++) {
+            double force = forcing.force((step * timeStep) + halfStep);
+            double nextDeflection = (phi00 * deflection) + (phi01 * velocity) + (gamma0 * force);
+            velocity = (phi10 * deflection) + (phi11 * velocity) + (gamma1 * force);
+            deflection = nextDeflection;
+            if (step >= settleSteps) {
+                minDeflection = Math.min(minDeflection, deflection);
+                maxDeflection = Math.max(maxDeflection, deflection);
+            }
+        }
+
+        result.steps = steps;
+        result.minDeflection = minDeflection;
+        result.maxDeflection = maxDeflection;
+        result.minForce = springRate * minDeflection;
+        result.maxForce = springRate * maxDeflection;
+        result.reachedSolid = maxDeflection >= deflectionToSolid;
+        result.factorOfSafety = SpringCalculator.calculateFatigueFactorOfSafety(coilDiameter, wireDiameter,
+                result.minForce, result.maxForce, ultimateTensileStrength, peened);
+        return result;
+    }
+
+    /* e^A for a 3x3 row-major matrix, by scaling and squaring a Taylor series */
+    private static double[] exponential(double[] a) {
+        double norm = 0;
+        for (int row = 0; row < 3; row++) {
+            norm = Math.max(norm, Math.abs(a[row * 3]) + Math.abs(a[(row * 3) + 1]) + Math.abs(a[(row * 3) + 2]));
+        }
+        int squarings = Math.max(0, Math.getExponent(norm) + 2);
+        double scale = Math.scalb(1.0, -squarings);
+        double[] scaled = new double[9];
+        for (int i = 0; i < 9; i++) {
+            scaled[i] = a[i] * scale;
+        }
+
+        // With the norm below 1/2, 20 terms are well past double precision
+        double[] result = {1, 0, 0, 0, 1, 0, 0, 0, 1};
+        double[] term = result.clone();
+        for (int k = 1; k <= 20; k++) {
+            term = multiply(term, scaled);
+            for (int i = 0; i < 9; i++) {
+                term[i] /= k;
+                result[i] += term[i];
+            }
+        }
+        for (int i = 0; i < squarings; i++) {
+            result = multiply(result, result);
+        }
+        return result;
+    }
+
+    private static double[] multiply(double[] a, double[] b) {
+        double[] product = new double[9];
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++) {
+                double sum = 0;
+                for (int k = 0; k < 3; k++) {
+                    sum += a[(row * 3) + k] * b[(k * 3) + column];
+                }
+                product[(row * 3) + column] = sum;
+            }
+        }
+        return product;
+    }
+}
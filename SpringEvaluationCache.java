@@ -0,0 +1,353 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ME 35401 - Spring Calculator (Evaluation Cache)
+ *
+ * A bounded, thread-safe memo of SpringCalculator.evaluate for workloads that check the same designs again and
+ * again, such as stock springs in the HTTP service or batch files. Designs are keyed on the material, end type, peen
+ * type, and every dimension and force rounded to a quantum (exact bits when the quantum is 0, or for NaN and infinite
+ * values), so designs within half a quantum of each other share one entry. A miss is evaluated with the caller's own
+ * values, so results differ from evaluate only by what half a quantum changes.
+ *
+ * Entries are split over independently locked segments so threads rarely wait on each other, and each segment evicts
+ * its least recently used entry when full. With the TINY_LFU policy a segment also keeps a small count-min sketch of
+ * how often keys are requested and only admits a new design if it has been asked for more often than the entry it
+ * would evict, which keeps popular designs from being flushed by a scan of one-off designs.
+ *
+ */
+
+public class SpringEvaluationCache {
+    public static final double DEFAULT_QUANTUM = 1e-9;
+
+    public enum Policy {
+        /* Always admit, evict the least recently used entry */
+        LRU,
+        /* Admit only if requested more often than the least recently used entry */
+        TINY_LFU
+    }
+
+    /* Counter snapshot */
+    public static final class Statistics {
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final long rejections;
+        public final long size;
+
+        Statistics(long hits, long misses, long evictions, long rejections, long size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.rejections = rejections;
+            this.size = size;
+        }
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return (requests > 0) ? (double) hits / requests : Double.NaN;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d hits, %d misses (%.1f%% hit rate), %d evictions, %d rejections, %d entries",
+                    hits, misses, 100 * hitRate(), evictions, rejections, size);
+        }
+    }
+
+    private final double quantum;
+    private final SegmentedCache<DesignKey, SpringCalculator.Evaluation> designs;
+
+    public SpringEvaluationCache(int maximumSize) {
+        this(maximumSize, Policy.TINY_LFU, DEFAULT_QUANTUM);
+    }
+
+    public SpringEvaluationCache(int maximumSize, Policy policy, double quantum) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+        }
+        if (!(quantum >= 0)) {
+            throw new IllegalArgumentException("Quantum must not be negative: " + quantum);
+        }
+        this.quantum = quantum;
+        this.designs = new SegmentedCache<>(maximumSize, policy);
+    }
+
+    /* Same as SpringCalculator.evaluate, answered from the cache when an equivalent design has been evaluated */
+    public SpringCalculator.Evaluation evaluate(SpringCalculator.Material material, SpringCalculator.EndType endType,
+                                                boolean peened, double wireDiameter, double outerDiameter,
+                                                double freeLength, double solidLength, double minForce,
+                                                double maxForce, SpringCalculator.Evaluation result) {
+        DesignKey key = new DesignKey(material, endType, peened, quantize(wireDiameter), quantize(outerDiameter),
+                quantize(freeLength), quantize(solidLength), quantize(minForce), quantize(maxForce));
+        SpringCalculator.Evaluation cached = designs.get(key);
+        if (cached != null) {
+            copy(cached, result);
+            return result;
+        }
+
+        SpringMetrics.evaluate(material, endType, peened, wireDiameter, outerDiameter, freeLength, solidLength,
+                minForce, maxForce, result);
+        SpringCalculator.Evaluation entry = new SpringCalculator.Evaluation();
+        copy(result, entry);
+        designs.put(key, entry);
+        return result;
+    }
+
+    public Statistics statistics() {
+        return designs.statistics();
+    }
+
+    public void clear() {
+        designs.clear();
+    }
+
+    /* Math.round maps NaN to 0 and saturates huge values, so those keep their exact bits like a zero quantum */
+    private long quantize(double value) {
+        double quanta = value / quantum;
+        return ((quantum > 0) && (Math.abs(quanta) < 0x1p62)) ? Math.round(quanta) : Double.doubleToLongBits(value);
+    }
+
+    private static void copy(SpringCalculator.Evaluation from, SpringCalculator.Evaluation to) {
+        to.ultimateTensileStrength = from.ultimateTensileStrength;
+        to.yieldStrength = from.yieldStrength;
+        to.yieldStrengthShear = from.yieldStrengthShear;
+        to.E = from.E;
+        to.G = from.G;
+        to.totalCoils = from.totalCoils;
+        to.activeCoils = from.activeCoils;
+        to.pitch = from.pitch;
+        to.springRate = from.springRate;
+        to.forceToSolid = from.forceToSolid;
+        to.factorOfSafetyAtForceToSolid = from.factorOfSafetyAtForceToSolid;
+        to.factorOfSafety = from.factorOfSafety;
+        to.cyclic = from.cyclic;
+        to.springIndex = from.springIndex;
+        to.bergstrasserFactor = from.bergstrasserFactor;
+        to.shearStressAtForceToSolid = from.shearStressAtForceToSolid;
+        to.shearStressAmplitude = from.shearStressAmplitude;
+        to.shearStressMean = from.shearStressMean;
+    }
+
+    private static final class DesignKey {
+        private final SpringCalculator.Material material;
+        private final SpringCalculator.EndType endType;
+        private final boolean peened;
+        private final long wireDiameter;
+        private final long outerDiameter;
+        private final long freeLength;
+        private final long solidLength;
+        private final long minForce;
+        private final long maxForce;
+        private final int hash;
+
+        DesignKey(SpringCalculator.Material material, SpringCalculator.EndType endType, boolean peened,
+                  long wireDiameter, long outerDiameter, long freeLength, long solidLength, long minForce,
+                  long maxForce) {
+            this.material = material;
+            this.endType = endType;
+            this.peened = peened;
+            this.wireDiameter = wireDiameter;
+            this.outerDiameter = outerDiameter;
+            this.freeLength = freeLength;
+            this.solidLength = solidLength;
+            this.minForce = minForce;
+            this.maxForce = maxForce;
+
+            long h = (((material.ordinal() * 31L) + endType.ordinal()) * 2) + (peened ? 1 : 0);
+            h = (h * 0x9E3779B97F4A7C15L) + wireDiameter;
+            h = (h * 0x9E3779B97F4A7C15L) + outerDiameter;
+            h = (h * 0x9E3779B97F4A7C15L) + freeLength;
+            h = (h * 0x9E3779B97F4A7C15L) + solidLength;
+            h = (h * 0x9E3779B97F4A7C15L) + minForce;
+            h = (h * 0x9E3779B97F4A7C15L) + maxForce;
+            this.hash = (int) (h ^ (h >>> 32));
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof DesignKey)) {
+                return false;
+            }
+            DesignKey key = (DesignKey) other;
+            return (hash == key.hash) && (material == key.material) && (endType == key.endType)
+                    && (peened == key.peened) && (wireDiameter == key.wireDiameter)
+                    && (outerDiameter == key.outerDiameter) && (freeLength == key.freeLength)
+                    && (solidLength == key.solidLength) && (minForce == key.minForce) && (maxForce == key.maxForce);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /*
+     * Lock-striped LRU map. Values are computed outside the locks, so two threads missing on the same key at once
+     * may both compute it; the last put wins, which is harmless because both computed the same value.
+     */
+    private static final class SegmentedCache<K, V> {
+        private final Segment<K, V>[] segments;
+        private final int segmentMask;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder rejections = new LongAdder();
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        SegmentedCache(int maximumSize, Policy policy) {
+            // A few segments per core, but never so many that a segment holds fewer than 16 entries
+            int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4));
+            while ((count > 1) && ((maximumSize / count) < 16)) {
+                count >>= 1;
+            }
+            segments = new Segment[count];
+            for (int i = 0; i < count; i++) {
+                int capacity = (maximumSize / count) + ((i < (maximumSize % count)) ? 1 : 0);
+                segments[i] = new Segment<>(capacity, policy == Policy.TINY_LFU);
+            }
+            segmentMask = count - 1;
+        }
+
+        V get(K key) {
+            int hash = spread(key.hashCode());
+            Segment<K, V> segment = segments[hash & segmentMask];
+            V value;
+            segment.lock.lock();
+            try {
+                value = segment.map.get(key);
+                if (segment.sketch != null) {
+                    segment.sketch.increment(hash);
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+            (value != null ? hits : misses).increment();
+            return value;
+        }
+
+        void put(K key, V value) {
+            int hash = spread(key.hashCode());
+            Segment<K, V> segment = segments[hash & segmentMask];
+            segment.lock.lock();
+            try {
+                Map<K, V> map = segment.map;
+                if ((map.size() < segment.capacity) || map.containsKey(key)) {
+                    map.put(key, value);
+                    return;
+                }
+
+                Iterator<Map.Entry<K, V>> eldest = map.entrySet().iterator();
+                K victim = eldest.next().getKey();
+                if ((segment.sketch != null)
+                        && (segment.sketch.frequency(hash) <= segment.sketch.frequency(spread(victim.hashCode())))) {
+                    rejections.increment();
+                    return;
+                }
+                eldest.remove();
+                evictions.increment();
+                map.put(key, value);
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+
+        Statistics statistics() {
+            long size = 0;
+            for (Segment<K, V> segment : segments) {
+                segment.lock.lock();
+                try {
+                    size += segment.map.size();
+                } finally {
+                    segment.lock.unlock();
+                }
+            }
+            return new Statistics(hits.sum(), misses.sum(), evictions.sum(), rejections.sum(), size);
+        }
+
+        void clear() {
+            for (Segment<K, V> segment : segments) {
+                segment.lock.lock();
+                try {
+                    segment.map.clear();
+                } finally {
+                    segment.lock.unlock();
+                }
+            }
+        }
+
+        private static int spread(int hash) {
+            hash *= 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    private static final class Segment<K, V> {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<K, V> map;
+        final int capacity;
+        final FrequencySketch sketch;
+
+        Segment(int capacity, boolean trackFrequency) {
+            this.capacity = Math.max(1, capacity);
+            this.map = new LinkedHashMap<>(Math.max(16, (this.capacity * 4) / 3 + 1), 0.75f, true);
+            this.sketch = trackFrequency ? new FrequencySketch(this.capacity) : null;
+        }
+    }
+
+    /*
+     * Count-min sketch of 4 rows of 4-bit-range counters. All counters are halved after ten increments per entry so
+     * that designs which were popular long ago lose their priority.
+     */
+    private static final class FrequencySketch {
+        private static final int ROWS = 4;
+        private static final int MAX_COUNT = 15;
+        private static final int[] seeds = {0x97CB3127, 0xB7AAE3CB, 0x2DB0C5A5, 0x7F4A7C15};
+
+        private final byte[] counters;
+        private final int rowMask;
+        private final int resetInterval;
+        private int additions;
+
+        FrequencySketch(int capacity) {
+            int width = Integer.highestOneBit(Math.max(16, capacity * 2) - 1) << 1;
+            counters = new byte[ROWS * width];
+            rowMask = width - 1;
+            resetInterval = 10 * capacity;
+        }
+
+        void increment(int hash) {
+            boolean added = false;
+            for (int row = 0; row < ROWS; row++) {
+                int index = index(hash, row);
+                if (counters[index] < MAX_COUNT) {
+                    counters[index]++;
+                    added = true;
+                }
+            }
+            if (added && (++additions >= resetInterval)) {
+                for (int i = 0; i < counters.length; i++) {
+                    counters[i] >>= 1;
+                }
+                additions /= 2;
+            }
+        }
+
+        int frequency(int hash) {
+            int frequency = MAX_COUNT;
+            for (int row = 0; row < ROWS; row++) {
+                frequency = Math.min(frequency, counters[index(hash, row)]);
+            }
+            return frequency;
+        }
+
+        private int index(int hash, int row) {
+            int h = hash * seeds[row];
+            h ^= h >>> 15;
+            return (row * (rowMask + 1)) + (h & rowMask);
+        }
+    }
+}
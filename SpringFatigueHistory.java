@@ -0,0 +1,418 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * ME 35401 - Spring Calculator (Load History Fatigue)
+ *
+ * This program estimates fatigue damage from a measured force history instead of one constant min/max force pair.
+ * The history is streamed from a memory-mapped file through a rainflow counter (ASTM E1049 three-point method), so
+ * only the unclosed reversals are ever held in memory. Each counted cycle's force amplitude and mean are turned into
+ * shear stresses with the Bergstrasser factor, and the Goodman line with Ssu = 0.67 Sut used in
+ * calculateFatigueFactorOfSafety gives an equivalent fully reversed stress, Sa / (1 - Sm / Ssu). Damage is
+ * accumulated with the Palmgren-Miner rule on an S-N line from 0.9 Ssu at 10^3 cycles to the Zimmerli Sse at 10^6
+ * cycles, with no damage below Sse. A cycle whose mean stress reaches Ssu fails at once.
+ *
+ * Force histories are raw little-endian doubles (.f64 or .bin), raw little-endian floats (.f32), or text with one
+ * sample per line (.csv or .txt, taking the given column and skipping lines that are not numbers).
+ *
+ * Usage: java SpringFatigueHistory history.f64 material=... peened=true|false wireDiameter=value
+ *        outerDiameter=value [column=0]
+ *
+ */
+
+public class SpringFatigueHistory {
+    private static final long MAP_WINDOW_BYTES = 1L << 28;
+    private static final int BLOCK_SAMPLES = 8192;
+
+    // Shigley's S-N line for springs: 0.9 Ssu at 10^3 cycles down to the endurance strength at 10^6 cycles
+    private static final double LOW_CYCLE_LIFE = 1000;
+    private static final double LOW_CYCLE_STRENGTH_RATIO = 0.9;
+    private static final double ENDURANCE_LIFE = 1000000;
+
+    private final double shearStressPerForce;
+    private final double Ssu;
+    private final double Sse;
+    private final double lowCycleStrength;
+    private final double inverseSlope;
+
+    private final RainflowCounter counter = new RainflowCounter();
+    private long samples;
+    private double fullCycles;
+    private double halfCycles;
+    private double damage;
+    private double maxRange;
+    private double minFactorOfSafety = Double.POSITIVE_INFINITY;
+
+    public SpringFatigueHistory(SpringCalculator.Material material, boolean peened, double wireDiameter,
+                                double outerDiameter) {
+        double coilDiameter = outerDiameter - wireDiameter;
+        double springIndex = coilDiameter / wireDiameter;
+        double bergstrasserFactor = ((4 * springIndex) + 2) / ((4 * springIndex) - 3);
+        double ultimateTensileStrength = material.ultimateTensileStrength(wireDiameter);
+
+        shearStressPerForce = bergstrasserFactor * ((8 * coilDiameter) / (Math.PI * Math.pow(wireDiameter, 3)));
+        Ssu = 0.67 * ultimateTensileStrength;
+        Sse = SpringBatchKernel.enduranceStrengthShear(ultimateTensileStrength, peened);
+        lowCycleStrength = LOW_CYCLE_STRENGTH_RATIO * Ssu;
+        inverseSlope = Math.log10(ENDURANCE_LIFE / LOW_CYCLE_LIFE) / Math.log10(lowCycleStrength / Sse);
+        if (!(Sse > 0) || !(Sse < lowCycleStrength)) {
+            throw new IllegalArgumentException("Material strength is outside the range of the Zimmerli data");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path path = null;
+        SpringCalculator.Material material = null;
+        boolean peened = false;
+        double wireDiameter = Double.NaN, outerDiameter = Double.NaN;
+        int column = 0;
+
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair.length == 1) {
+                path = Path.of(arg);
+                continue;
+            }
+            switch (pair[0]) {
+                case "material" -> material = SpringCalculator.Material.fromDisplayName(pair[1]);
+                case "peened" -> peened = SpringBatchCalculator.parsePeenType(pair[1]);
+                case "wireDiameter" -> wireDiameter = Double.parseDouble(pair[1]);
+                case "outerDiameter" -> outerDiameter = Double.parseDouble(pair[1]);
+                case "column" -> column = Integer.parseInt(pair[1]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        if (path == null || material == null || Double.isNaN(wireDiameter) || Double.isNaN(outerDiameter)) {
+            System.err.println("Usage: java SpringFatigueHistory history.f64|history.f32|history.csv material=... "
+                    + "peened=true|false wireDiameter=value outerDiameter=value [column=0]");
+            System.exit(1);
+        }
+
+        SpringFatigueHistory history = new SpringFatigueHistory(material, peened, wireDiameter, outerDiameter);
+        long startTime = System.nanoTime();
+        history.read(path, column);
+        history.finish();
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        System.out.printf("Samples: %d%nFull Cycles: %.0f%nHalf Cycles: %.0f%nLargest Force Range: %.3f lbf%n"
+                        + "Lowest Cycle Factor of Safety for Infinite Life: %.3f%nMiner's Damage: %.6g%n"
+                        + "Repetitions of History to Failure: %.6g%n", history.samples, history.fullCycles,
+                history.halfCycles, history.maxRange, history.minFactorOfSafety, history.damage,
+                1 / history.damage);
+        System.err.printf("Processed %d samples in %.3f s (%.0f samples/sec)%n", history.samples, seconds,
+                history.samples / seconds);
+    }
+
+    /* Streams a force history file into the counter, choosing the format by file extension */
+    public void read(Path path, int column) throws IOException {
+        String name = path.getFileName().toString().toLowerCase();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (name.endsWith(".f32")) {
+                readFloats(channel);
+            } else if (name.endsWith(".csv") || name.endsWith(".txt")) {
+                readText(channel, column);
+            } else {
+                readDoubles(channel);
+            }
+        }
+    }
+
+    private void readDoubles(FileChannel channel) throws IOException {
+        double[] block = new double[BLOCK_SAMPLES];
+        long size = channel.size() & ~7L;
+        for (long position = 0; position < size; position += MAP_WINDOW_BYTES) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(MAP_WINDOW_BYTES, size - position));
+            DoubleBuffer values = window.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+            while (values.hasRemaining()) {
+                int length = Math.min(block.length, values.remaining());
+                values.get(block, 0, length);
+                add(block, 0, length);
+            }
+        }
+    }
+
+    private void readFloats(FileChannel channel) throws IOException {
+        float[] floats = new float[BLOCK_SAMPLES];
+        double[] block = new double[BLOCK_SAMPLES];
+        long size = channel.size() & ~3L;
+        for (long position = 0; position < size; position += MAP_WINDOW_BYTES) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(MAP_WINDOW_BYTES, size - position));
+            FloatBuffer values = window.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            while (values.hasRemaining()) {
+                int length = Math.min(floats.length, values.remaining());
+                values.get(floats, 0, length);
+                for (int i = 0; i < length; i++) {
+                    block[i] = floats[i];
+                }
+                add(block, 0, length);
+            }
+        }
+    }
+
+    /* Parses the given column of each line straight from the mapped bytes; lines may not span windows */
+    private void readText(FileChannel channel, int column) throws IOException {
+        double[] block = new double[BLOCK_SAMPLES];
+        int length = 0;
+        long size = channel.size();
+        long position = 0;
+        while (position < size) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(MAP_WINDOW_BYTES, size - position));
+            int limit = window.limit();
+            // Only parse whole lines unless this is the end of the file
+            if (position + limit < size) {
+                while (limit > 0 && window.get(limit - 1) != '\n') {
+                    limit--;
+                }
+                if (limit == 0) {
+                    throw new IOException("Line longer than " + MAP_WINDOW_BYTES + " bytes");
+                }
+            }
+
+            int lineStart = 0;
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && window.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int fieldStart = lineStart;
+                for (int field = 0; field < column && fieldStart < lineEnd; fieldStart++) {
+                    byte c = window.get(fieldStart);
+                    if (c == ',' || c == '\t' || c == ';') {
+                        field++;
+                    }
+                }
+                double value = parseNumber(window, fieldStart, lineEnd);
+                if (!Double.isNaN(value)) {
+                    block[length++] = value;
+                    if (length == block.length) {
+                        add(block, 0, length);
+                        length = 0;
+                    }
+                }
+                lineStart = lineEnd + 1;
+            }
+            position += limit;
+        }
+        add(block, 0, length);
+    }
+
+    private static final double[] POWERS_OF_TEN =
+            {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18,
+                    1e19, 1e20, 1e21, 1e22};
+
+    /* Parses a decimal number at the start of the field, or returns NaN if there is none */
+    private static double parseNumber(MappedByteBuffer bytes, int start, int end) {
+        int i = start;
+        while (i < end && (bytes.get(i) == ' ' || bytes.get(i) == '"')) {
+            i++;
+        }
+        boolean negative = false;
+        if (i < end && (bytes.get(i) == '-' || bytes.get(i) == '+')) {
+            negative = bytes.get(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigits = false;
+        for (; i < end && bytes.get(i) >= '0' && bytes.get(i) <= '9'; i++) {
+            anyDigits = true;
+            if (digits < 18) {
+                mantissa = (mantissa * 10) + (bytes.get(i) - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+            } else {
+                exponent++;
+            }
+        }
+        if (i < end && bytes.get(i) == '.') {
+            for (i++; i < end && bytes.get(i) >= '0' && bytes.get(i) <= '9'; i++) {
+                anyDigits = true;
+                if (digits < 18) {
+                    mantissa = (mantissa * 10) + (bytes.get(i) - '0');
+                    exponent--;
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                }
+            }
+        }
+        if (!anyDigits) {
+            return Double.NaN;
+        }
+        if (i < end && (bytes.get(i) == 'e' || bytes.get(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (bytes.get(i) == '-' || bytes.get(i) == '+')) {
+                negativeExponent = bytes.get(i) == '-';
+                i++;
+            }
+            int value = 0;
+            for (; i < end && bytes.get(i) >= '0' && bytes.get(i) <= '9'; i++) {
+                value = Math.min(10000, (value * 10) + (bytes.get(i) - '0'));
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+
+        double value;
+        // Exact fast path: both the mantissa and the power of ten are exactly representable
+        if (mantissa < (1L << 53) && exponent >= -22 && exponent <= 22) {
+            value = (exponent < 0) ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        } else {
+            value = Double.parseDouble(mantissa + "e" + exponent);
+        }
+        return negative ? -value : value;
+    }
+
+    /* Adds force samples (lbf) to the history, skipping NaN samples as the text reader does */
+    public void add(double[] forces, int offset, int length) {
+        RainflowCounter counter = this.counter;
+        long added = 0;
+        for (int i = offset; i < offset + length; i++) {
+            double force = forces[i];
+            if (!Double.isNaN(force)) {
+                counter.add(force);
+                added++;
+            }
+        }
+        samples += added;
+    }
+
+    /* Counts the unclosed reversals left at the end of the history as half cycles */
+    public void finish() {
+        counter.finish();
+    }
+
+    public long samples() {
+        return samples;
+    }
+
+    public double fullCycles() {
+        return fullCycles;
+    }
+
+    public double halfCycles() {
+        return halfCycles;
+    }
+
+    /* Miner's sum for one pass of the history; failure is predicted at 1 */
+    public double damage() {
+        return damage;
+    }
+
+    /* The lowest calculateFatigueFactorOfSafety over all counted cycles */
+    public double minFactorOfSafety() {
+        return minFactorOfSafety;
+    }
+
+    /* Adds the damage of a counted cycle (count is 1 for a full cycle or 0.5 for a half cycle) */
+    private void cycle(double range, double mean, double count) {
+        if (count == 1) {
+            fullCycles++;
+        } else {
+            halfCycles++;
+        }
+        maxRange = Math.max(maxRange, range);
+
+        double shearStressAmplitude = shearStressPerForce * (range / 2);
+        double shearStressMean = Math.max(0, shearStressPerForce * mean);
+        double factorOfSafety = 1 / ((shearStressAmplitude / Sse) + (shearStressMean / Ssu));
+        minFactorOfSafety = Math.min(minFactorOfSafety, factorOfSafety);
+
+        // Fully reversed stress on the same Goodman line; a mean stress at or past Ssu fails on the first cycle
+        if (shearStressMean >= Ssu) {
+            damage = Double.POSITIVE_INFINITY;
+            return;
+        }
+        double equivalentStress = shearStressAmplitude / (1 - (shearStressMean / Ssu));
+        if (equivalentStress > Sse) {
+            double life = LOW_CYCLE_LIFE * Math.pow(lowCycleStrength / equivalentStress, inverseSlope);
+            damage += count / life;
+        }
+    }
+
+    /* Three-point rainflow counting on the reversals of a stream (ASTM E1049) */
+    private final class RainflowCounter {
+        private double[] stack = new double[64];
+        private int size;
+        private int start;
+        private double last = Double.NaN;
+        private int direction;
+
+        void add(double value) {
+            if (Double.isNaN(last)) {
+                last = value;
+                push(value);
+                return;
+            }
+            if (value == last) {
+                return;
+            }
+
+            int newDirection = (value > last) ? 1 : -1;
+            if (direction != 0 && newDirection != direction) {
+                // last was a peak or valley
+                push(last);
+            }
+            direction = newDirection;
+            last = value;
+        }
+
+        void finish() {
+            if (!Double.isNaN(last) && direction != 0) {
+                push(last);
+            }
+            for (int i = start; i + 1 < size; i++) {
+                cycle(Math.abs(stack[i + 1] - stack[i]), 0.5 * (stack[i + 1] + stack[i]), 0.5);
+            }
+            size = 0;
+            start = 0;
+            last = Double.NaN;
+            direction = 0;
+        }
+
+        private void push(double reversal) {
+            if (size == stack.length) {
+                if (start > 0) {
+                    System.arraycopy(stack, start, stack, 0, size - start);
+                    size -= start;
+                    start = 0;
+                } else {
+                    double[] grown = new double[stack.length * 2];
+                    System.arraycopy(stack, 0, grown, 0, size);
+                    stack = grown;
+                }
+            }
+            stack[size++] = reversal;
+
+            while (size - start >= 3) {
+                double x = Math.abs(stack[size - 1] - stack[size - 2]);
+                double y = Math.abs(stack[size - 2] - stack[size - 3]);
+                if (x < y) {
+                    return;
+                }
+                if (size - start == 3) {
+                    // Y includes the starting point, so it is a half cycle
+                    cycle(y, 0.5 * (stack[start] + stack[start + 1]), 0.5);
+                    start++;
+                } else {
+                    cycle(y, 0.5 * (stack[size - 2] + stack[size - 3]), 1);
+                    stack[size - 3] = stack[size - 1];
+                    size -= 2;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+import java.util.Arrays;
+
+/**
+ * ME 35401 - Spring Calculator (Histogram)
+ *
+ * A log-linear histogram of positive values. Buckets are taken straight from the bits of a double: the exponent and
+ * the top SUB_BUCKET_BITS of the mantissa, so every bucket spans the same relative width (under 1% here) and
+ * recording a value needs no logarithm. Values at or below zero, NaN, and values outside the tracked range are
+ * counted separately. Histograms are not thread-safe; each thread records into its own and they are merged at the
+ * end.
+ *
+ */
+
+public class SpringHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int MIN_EXPONENT = -40;
+    private static final int MAX_EXPONENT = 60;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - MIN_EXPONENT) << SUB_BUCKET_BITS;
+    private static final long FIRST_BUCKET_BITS =
+            Double.doubleToRawLongBits(Math.scalb(1.0, MIN_EXPONENT)) >>> (52 - SUB_BUCKET_BITS);
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long count;
+    private long nonPositiveCount;
+    private long underflowCount;
+    private long overflowCount;
+    private long nanCount;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double sum;
+
+    public void record(double value) {
+        count++;
+        if (Double.isNaN(value)) {
+            nanCount++;
+            return;
+        }
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        if (!(value > 0)) {
+            nonPositiveCount++;
+            return;
+        }
+        sum += value;
+
+        long bucket = (Double.doubleToRawLongBits(value) >>> (52 - SUB_BUCKET_BITS)) - FIRST_BUCKET_BITS;
+        if (bucket < 0) {
+            underflowCount++;
+        } else if (bucket >= BUCKET_COUNT) {
+            overflowCount++;
+        } else {
+            counts[(int) bucket]++;
+        }
+    }
+
+    /* Adds another histogram's counts into this one */
+    public void merge(SpringHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        nonPositiveCount += other.nonPositiveCount;
+        underflowCount += other.underflowCount;
+        overflowCount += other.overflowCount;
+        nanCount += other.nanCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sum += other.sum;
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        nonPositiveCount = 0;
+        underflowCount = 0;
+        overflowCount = 0;
+        nanCount = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+        sum = 0;
+    }
+
+    /* Number of values recorded, including NaN */
+    public long count() {
+        return count;
+    }
+
+    public long nanCount() {
+        return nanCount;
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    /* Sum of the positive values */
+    public double sum() {
+        return sum;
+    }
+
+    /* Mean of the positive values */
+    public double mean() {
+        long positive = count - nanCount - nonPositiveCount;
+        return (positive > 0) ? sum / positive : Double.NaN;
+    }
+
+    /* Fraction of the non-NaN values that are below the threshold, to the histogram's resolution */
+    public double fractionBelow(double threshold) {
+        long valid = count - nanCount;
+        if (valid == 0) {
+            return Double.NaN;
+        }
+        if (!(threshold > 0)) {
+            return (threshold > min) ? (double) nonPositiveCount / valid : 0;
+        }
+
+        long below = nonPositiveCount + underflowCount;
+        long bucket = (Double.doubleToRawLongBits(threshold) >>> (52 - SUB_BUCKET_BITS)) - FIRST_BUCKET_BITS;
+        long end = Math.min(bucket, BUCKET_COUNT);
+        for (int i = 0; i < end; i++) {
+            below += counts[i];
+        }
+        if (bucket >= BUCKET_COUNT) {
+            below += (threshold > max) ? overflowCount : 0;
+        }
+        return (double) below / valid;
+    }
+
+    /* Value at the given percentile (0 to 100) of the non-NaN values, to the histogram's resolution */
+    public double percentile(double percentile) {
+        long valid = count - nanCount;
+        if (valid == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil((percentile / 100) * valid));
+        if (rank >= valid) {
+            return max;
+        }
+
+        long seen = nonPositiveCount;
+        if (seen >= rank) {
+            return min;
+        }
+        seen += underflowCount;
+        if (seen >= rank) {
+            return Math.scalb(1.0, MIN_EXPONENT);
+        }
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, Math.max(min, bucketMidpoint(i)));
+            }
+        }
+        return max;
+    }
+
+    private static double bucketMidpoint(int bucket) {
+        long bits = (bucket + FIRST_BUCKET_BITS) << (52 - SUB_BUCKET_BITS);
+        double low = Double.longBitsToDouble(bits);
+        double high = Double.longBitsToDouble(bits + (1L << (52 - SUB_BUCKET_BITS)));
+        return 0.5 * (low + high);
+    }
+}
@@ -0,0 +1,263 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ME 35401 - Spring Calculator (Metrics)
+ *
+ * Optional instrumentation of the calculation stages behind the batch calculator, HTTP service, and daemon: the
+ * material values (calculateMaterialInfo), the coil counts (calculateDimensionalInfo), and the factors of safety
+ * (calculateFactorOfSafetyAtForceToSolid with calculateStaticFactorOfSafety or calculateFatigueFactorOfSafety). The
+ * methods here mirror the SpringCalculator ones they wrap and return the same values.
+ *
+ * Metrics are enabled by running with -Dspring.metrics=true. ENABLED is a static final, so when it is off the JIT
+ * folds every check away and each method is a plain call to SpringCalculator. When it is on, the time spent in each
+ * stage is recorded into SpringHistograms, and evaluations and failed checks are counted in LongAdders. SpringHistogram
+ * is not thread-safe, so the histograms are striped by thread and each stripe has its own lock. A spring.Evaluation
+ * JDK Flight Recorder event is also committed for each evaluation while a recording has it enabled. export() formats
+ * everything in the Prometheus text format.
+ *
+ */
+
+public final class SpringMetrics {
+    public static final boolean ENABLED = Boolean.getBoolean("spring.metrics");
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final int STRIPE_COUNT = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1)
+            << 1;
+
+    public enum Stage {
+        MATERIAL_INFO,
+        DIMENSIONAL_INFO,
+        STATIC_FACTORS_OF_SAFETY,
+        FATIGUE_FACTORS_OF_SAFETY;
+
+        final String label = name().toLowerCase(Locale.ROOT);
+    }
+
+    /* A design passes a check when its factor of safety is at least 1 */
+    public enum Check {
+        FACTOR_OF_SAFETY_AT_FORCE_TO_SOLID,
+        STATIC_FACTOR_OF_SAFETY,
+        FATIGUE_FACTOR_OF_SAFETY;
+
+        final String label = name().toLowerCase(Locale.ROOT);
+        final LongAdder checked = new LongAdder();
+        final LongAdder failed = new LongAdder();
+    }
+
+    private static final LongAdder invalidDesigns = new LongAdder();
+
+    private SpringMetrics() {
+    }
+
+    /* Loaded on first use, so the histograms are only allocated when metrics are enabled */
+    private static final class Stripes {
+        static final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+
+        static {
+            for (int i = 0; i < STRIPE_COUNT; i++) {
+                stripes[i] = new Stripe();
+            }
+        }
+    }
+
+    private static final class Stripe {
+        final SpringHistogram[] nanos = new SpringHistogram[Stage.values().length];
+
+        Stripe() {
+            for (int i = 0; i < nanos.length; i++) {
+                nanos[i] = new SpringHistogram();
+            }
+        }
+    }
+
+    @Name("spring.Evaluation")
+    @Label("Spring Evaluation")
+    @Category("Spring Calculator")
+    @Description("Coil counts, spring rate, and factors of safety of one design")
+    @StackTrace(false)
+    static final class EvaluationEvent extends Event {
+        @Label("Material")
+        String material;
+
+        @Label("End Type")
+        String endType;
+
+        @Label("Load Case")
+        String loadCase;
+
+        @Label("Wire Diameter (in)")
+        double wireDiameter;
+
+        @Label("Outer Diameter (in)")
+        double outerDiameter;
+
+        @Label("Spring Rate (lbf/in)")
+        double springRate;
+
+        @Label("Factor of Safety at Solid Length")
+        double factorOfSafetyAtForceToSolid;
+
+        @Label("Factor of Safety")
+        double factorOfSafety;
+    }
+
+    /* Same as SpringCalculator.evaluate */
+    public static SpringCalculator.Evaluation evaluate(SpringCalculator.Material material,
+                                                       SpringCalculator.EndType endType, boolean peened,
+                                                       double wireDiameter, double outerDiameter, double freeLength,
+                                                       double solidLength, double minForce, double maxForce,
+                                                       SpringCalculator.Evaluation result) {
+        SpringCalculator.LoadCase loadCase = SpringCalculator.LoadCase.of(minForce, maxForce);
+        if (!ENABLED) {
+            return SpringCalculator.evaluate(loadCase, material, endType, peened, wireDiameter, outerDiameter,
+                    freeLength, solidLength, minForce, maxForce, result);
+        }
+        EvaluationEvent event = new EvaluationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        SpringCalculator.evaluateMaterial(material, wireDiameter, result);
+        long materialNanos = System.nanoTime() - start;
+        evaluateWithMaterial(loadCase, endType, peened, wireDiameter, outerDiameter, freeLength, solidLength,
+                minForce, maxForce, result, materialNanos, event);
+        if (event.shouldCommit()) {
+            event.material = material.displayName;
+            event.commit();
+        }
+        return result;
+    }
+
+    /* Times the dimensional and factor of safety stages, records them with the material stage */
+    private static void evaluateWithMaterial(SpringCalculator.LoadCase loadCase, SpringCalculator.EndType endType,
+                                             boolean peened, double wireDiameter, double outerDiameter,
+                                             double freeLength, double solidLength, double minForce,
+                                             double maxForce, SpringCalculator.Evaluation result,
+                                             long materialNanos, EvaluationEvent event) {
+        long start = System.nanoTime();
+        SpringCalculator.evaluateDimensions(endType, wireDiameter, freeLength, solidLength, result);
+        long dimensionsEnd = System.nanoTime();
+        SpringCalculator.evaluateStresses(loadCase, peened, wireDiameter, outerDiameter - wireDiameter, freeLength,
+                solidLength, minForce, maxForce, result);
+        long end = System.nanoTime();
+        event.end();
+
+        boolean cyclic = loadCase == SpringCalculator.LoadCase.CYCLIC;
+        Stage stage = cyclic ? Stage.FATIGUE_FACTORS_OF_SAFETY : Stage.STATIC_FACTORS_OF_SAFETY;
+        Stripe stripe = stripe();
+        synchronized (stripe) {
+            stripe.nanos[Stage.MATERIAL_INFO.ordinal()].record(materialNanos);
+            stripe.nanos[Stage.DIMENSIONAL_INFO.ordinal()].record(dimensionsEnd - start);
+            stripe.nanos[stage.ordinal()].record(end - dimensionsEnd);
+        }
+
+        count(Check.FACTOR_OF_SAFETY_AT_FORCE_TO_SOLID, result.factorOfSafetyAtForceToSolid);
+        count(cyclic ? Check.FATIGUE_FACTOR_OF_SAFETY : Check.STATIC_FACTOR_OF_SAFETY, result.factorOfSafety);
+        if (Double.isNaN(result.factorOfSafetyAtForceToSolid) || Double.isNaN(result.factorOfSafety)) {
+            invalidDesigns.increment();
+        }
+
+        if (event.shouldCommit()) {
+            event.endType = endType.displayName;
+            event.loadCase = cyclic ? "cyclic" : "static";
+            event.wireDiameter = wireDiameter;
+            event.outerDiameter = outerDiameter;
+            event.springRate = result.springRate;
+            event.factorOfSafetyAtForceToSolid = result.factorOfSafetyAtForceToSolid;
+            event.factorOfSafety = result.factorOfSafety;
+        }
+    }
+
+    private static void count(Check check, double factorOfSafety) {
+        check.checked.increment();
+        if (!(factorOfSafety >= 1)) {
+            check.failed.increment();
+        }
+    }
+
+    private static Stripe stripe() {
+        return Stripes.stripes[(int) Thread.currentThread().getId() & (STRIPE_COUNT - 1)];
+    }
+
+    /* Every metric in the Prometheus text format */
+    public static String export() {
+        StringBuilder builder = new StringBuilder(4096);
+        builder.append("# HELP spring_metrics_enabled Whether the calculation stages are instrumented\n")
+                .append("# TYPE spring_metrics_enabled gauge\n")
+                .append("spring_metrics_enabled ").append(ENABLED ? 1 : 0).append('\n');
+
+        builder.append("# HELP spring_stage_duration_seconds Time spent in each calculation stage\n")
+                .append("# TYPE spring_stage_duration_seconds summary\n");
+        // Nothing is recorded when disabled, so export does not load the stripes either
+        Stripe[] stripes = ENABLED ? Stripes.stripes : new Stripe[0];
+        for (Stage stage : Stage.values()) {
+            SpringHistogram nanos = new SpringHistogram();
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    nanos.merge(stripe.nanos[stage.ordinal()]);
+                }
+            }
+            for (double quantile : QUANTILES) {
+                double value = (nanos.count() > 0) ? nanos.percentile(100 * quantile) / 1e9 : Double.NaN;
+                builder.append("spring_stage_duration_seconds{stage=\"").append(stage.label).append("\",quantile=\"")
+                        .append(quantile).append("\"} ").append(format(value)).append('\n');
+            }
+            builder.append("spring_stage_duration_seconds_sum{stage=\"").append(stage.label).append("\"} ")
+                    .append(format(nanos.sum() / 1e9)).append('\n')
+                    .append("spring_stage_duration_seconds_count{stage=\"").append(stage.label).append("\"} ")
+                    .append(nanos.count()).append('\n');
+        }
+
+        builder.append("# HELP spring_checks_total Designs checked against each factor of safety\n")
+                .append("# TYPE spring_checks_total counter\n");
+        for (Check check : Check.values()) {
+            builder.append("spring_checks_total{check=\"").append(check.label).append("\"} ")
+                    .append(check.checked.sum()).append('\n');
+        }
+        builder.append("# HELP spring_check_failures_total Designs with a factor of safety below 1 or undefined\n")
+                .append("# TYPE spring_check_failures_total counter\n");
+        for (Check check : Check.values()) {
+            builder.append("spring_check_failures_total{check=\"").append(check.label).append("\"} ")
+                    .append(check.failed.sum()).append('\n');
+        }
+        builder.append("# HELP spring_invalid_designs_total Designs whose factors of safety are undefined\n")
+                .append("# TYPE spring_invalid_designs_total counter\n")
+                .append("spring_invalid_designs_total ").append(invalidDesigns.sum()).append('\n');
+        return builder.toString();
+    }
+
+    /* Every metric, followed by the statistics of an evaluation cache */
+    public static String export(SpringEvaluationCache cache) {
+        StringBuilder builder = new StringBuilder(export());
+        SpringEvaluationCache.Statistics designs = cache.statistics();
+        builder.append("# HELP spring_cache_requests_total Evaluation cache lookups\n")
+                .append("# TYPE spring_cache_requests_total counter\n");
+        appendCache(builder, "spring_cache_requests_total", "designs", "result=\"hit\"", designs.hits);
+        appendCache(builder, "spring_cache_requests_total", "designs", "result=\"miss\"", designs.misses);
+        builder.append("# HELP spring_cache_evictions_total Entries evicted from the evaluation cache\n")
+                .append("# TYPE spring_cache_evictions_total counter\n");
+        appendCache(builder, "spring_cache_evictions_total", "designs", null, designs.evictions);
+        builder.append("# HELP spring_cache_entries Entries held by the evaluation cache\n")
+                .append("# TYPE spring_cache_entries gauge\n");
+        appendCache(builder, "spring_cache_entries", "designs", null, designs.size);
+        return builder.toString();
+    }
+
+    private static void appendCache(StringBuilder builder, String name, String cache, String label, long value) {
+        builder.append(name).append("{cache=\"").append(cache).append('"');
+        if (label != null) {
+            builder.append(',').append(label);
+        }
+        builder.append("} ").append(value).append('\n');
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "NaN" : Double.toString(value);
+    }
+}
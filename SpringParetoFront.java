@@ -0,0 +1,312 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ME 35401 - Spring Calculator (Pareto Front)
+ *
+ * Finds the designs that no other design beats on every objective at once: least wire volume, highest factor of
+ * safety for the load, and highest factor of safety at solid length. The wire volume is the wire's cross section
+ * times its length, pi * D per total coil, so pi^2 * d^2 * D * Nt / 4.
+ *
+ * Candidates are sorted by volume (ties broken by the other objectives), so a candidate can only be dominated by one
+ * before it. Following Kung's algorithm, the sorted range is split in half, the front of each half is found
+ * recursively (in parallel with fork-join), and the right half's front is then filtered against the left's: with
+ * the left front sorted by one objective and a running minimum of the other, each right candidate needs one binary
+ * search. That is O(n log^2 n) rather than comparing every pair. A front can also be grown incrementally as batches
+ * of designs arrive from a sweep.
+ *
+ */
+
+public class SpringParetoFront {
+    // Ranges at or below this size are filtered pairwise
+    private static final int BASE_CASE_SIZE = 64;
+    private static final int PARALLEL_SORT_SIZE = 8192;
+
+    private final ForkJoinPool pool;
+    private List<SpringDesignSweep.Design> front = new ArrayList<>();
+
+    public SpringParetoFront() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public SpringParetoFront(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /* Volume of wire (in^3) in a spring with the given total number of coils */
+    public static double wireVolume(double wireDiameter, double coilDiameter, double totalCoils) {
+        return (Math.PI * Math.PI * wireDiameter * wireDiameter * coilDiameter * totalCoils) / 4;
+    }
+
+    public static double wireVolume(SpringDesignSweep.Design design) {
+        return wireVolume(design.wireDiameter, design.outerDiameter - design.wireDiameter, design.totalCoils);
+    }
+
+    /*
+     * Merges a batch of designs into the front. The batch's own front is found before taking the lock, so sweep
+     * threads only wait on each other for the final merge.
+     */
+    public void add(List<SpringDesignSweep.Design> designs) {
+        List<SpringDesignSweep.Design> batchFront = nonDominated(designs, pool);
+        synchronized (this) {
+            List<SpringDesignSweep.Design> candidates = new ArrayList<>(front.size() + batchFront.size());
+            candidates.addAll(front);
+            candidates.addAll(batchFront);
+            front = nonDominated(candidates, pool);
+        }
+    }
+
+    /* The current front, in order of increasing wire volume */
+    public synchronized List<SpringDesignSweep.Design> front() {
+        return Collections.unmodifiableList(front);
+    }
+
+    /* The non-dominated designs, in order of increasing wire volume; designs with a NaN objective are left out */
+    public static List<SpringDesignSweep.Design> nonDominated(List<SpringDesignSweep.Design> designs,
+                                                              ForkJoinPool pool) {
+        int count = designs.size();
+        double[] volume = new double[count];
+        double[] factorOfSafety = new double[count];
+        double[] factorOfSafetyAtForceToSolid = new double[count];
+        for (int i = 0; i < count; i++) {
+            SpringDesignSweep.Design design = designs.get(i);
+            volume[i] = wireVolume(design);
+            factorOfSafety[i] = design.factorOfSafety;
+            factorOfSafetyAtForceToSolid[i] = design.factorOfSafetyAtForceToSolid;
+        }
+
+        int[] rows = nonDominated(volume, factorOfSafety, factorOfSafetyAtForceToSolid, count, pool);
+        List<SpringDesignSweep.Design> result = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            result.add(designs.get(row));
+        }
+        return result;
+    }
+
+    /*
+     * Rows of the non-dominated points among the first count, minimizing volume and maximizing both factors of
+     * safety, in order of increasing volume. Of several identical points only one is kept.
+     */
+    public static int[] nonDominated(double[] volume, double[] factorOfSafety, double[] factorOfSafetyAtForceToSolid,
+                                     int count, ForkJoinPool pool) {
+        // Every objective is minimized internally
+        double[] f1 = new double[count];
+        double[] f2 = new double[count];
+        double[] f3 = new double[count];
+        int[] rows = new int[count];
+        int valid = 0;
+        for (int i = 0; i < count; i++) {
+            if (Double.isNaN(volume[i]) || Double.isNaN(factorOfSafety[i])
+                    || Double.isNaN(factorOfSafetyAtForceToSolid[i])) {
+                continue;
+            }
+            f1[valid] = volume[i];
+            f2[valid] = -factorOfSafety[i];
+            f3[valid] = -factorOfSafetyAtForceToSolid[i];
+            rows[valid++] = i;
+        }
+
+        int[] order = new int[valid];
+        for (int i = 0; i < valid; i++) {
+            order[i] = i;
+        }
+        Objectives objectives = new Objectives(f1, f2, f3);
+        pool.invoke(new SortTask(order, new int[valid], 0, valid, objectives::compareLexicographic));
+
+        int[] front = pool.invoke(new FrontTask(order, 0, valid, objectives));
+        for (int i = 0; i < front.length; i++) {
+            front[i] = rows[front[i]];
+        }
+        return front;
+    }
+
+    private static final class Objectives {
+        final double[] f1;
+        final double[] f2;
+        final double[] f3;
+
+        Objectives(double[] f1, double[] f2, double[] f3) {
+            this.f1 = f1;
+            this.f2 = f2;
+            this.f3 = f3;
+        }
+
+        int compareLexicographic(int a, int b) {
+            int result = Double.compare(f1[a], f1[b]);
+            if (result == 0) {
+                result = Double.compare(f2[a], f2[b]);
+            }
+            return (result != 0) ? result : Double.compare(f3[a], f3[b]);
+        }
+
+        int compareSecondThenThird(int a, int b) {
+            int result = Double.compare(f2[a], f2[b]);
+            return (result != 0) ? result : Double.compare(f3[a], f3[b]);
+        }
+
+        /* Whether a, which comes no later in lexicographic order, is at least as good as b in f2 and f3 */
+        boolean covers(int a, int b) {
+            return (f2[a] <= f2[b]) && (f3[a] <= f3[b]);
+        }
+    }
+
+    private interface IndexOrder {
+        int compare(int a, int b);
+    }
+
+    /* Front of order[from, to), which must already be in lexicographic order; returned in the same order */
+    private static final class FrontTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient int[] order;
+        private final int from;
+        private final int to;
+        private final transient Objectives objectives;
+
+        FrontTask(int[] order, int from, int to, Objectives objectives) {
+            this.order = order;
+            this.from = from;
+            this.to = to;
+            this.objectives = objectives;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= BASE_CASE_SIZE) {
+                return baseCase();
+            }
+
+            int middle = (from + to) >>> 1;
+            FrontTask left = new FrontTask(order, from, middle, objectives);
+            left.fork();
+            int[] right = new FrontTask(order, middle, to, objectives).compute();
+            return merge(left.join(), right);
+        }
+
+        private int[] baseCase() {
+            int[] front = new int[to - from];
+            int size = 0;
+            for (int i = from; i < to; i++) {
+                int candidate = order[i];
+                boolean dominated = false;
+                for (int j = 0; j < size && !dominated; j++) {
+                    dominated = objectives.covers(front[j], candidate);
+                }
+                if (!dominated) {
+                    front[size++] = candidate;
+                }
+            }
+            return Arrays.copyOf(front, size);
+        }
+
+        /*
+         * Every left point comes first, so none can be dominated by a right point. A right point is dominated if some
+         * left point is no worse in f2 and f3: with the left front sorted by f2 and a running minimum of f3, that is
+         * one binary search for the last left point with f2 no greater than the right point's.
+         */
+        private int[] merge(int[] left, int[] right) {
+            int[] byF2 = left.clone();
+            mergeSort(byF2, new int[byF2.length], 0, byF2.length, objectives::compareSecondThenThird);
+            double[] minF3 = new double[byF2.length];
+            double runningMin = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < byF2.length; i++) {
+                runningMin = Math.min(runningMin, objectives.f3[byF2[i]]);
+                minF3[i] = runningMin;
+            }
+
+            int[] merged = Arrays.copyOf(left, left.length + right.length);
+            int size = left.length;
+            for (int candidate : right) {
+                double f2 = objectives.f2[candidate];
+                int low = 0;
+                int high = byF2.length;
+                while (low < high) {
+                    int middle = (low + high) >>> 1;
+                    if (objectives.f2[byF2[middle]] <= f2) {
+                        low = middle + 1;
+                    } else {
+                        high = middle;
+                    }
+                }
+                if ((low == 0) || (minF3[low - 1] > objectives.f3[candidate])) {
+                    merged[size++] = candidate;
+                }
+            }
+            return Arrays.copyOf(merged, size);
+        }
+    }
+
+    /* Stable merge sort of index[from, to), sorting halves in parallel above PARALLEL_SORT_SIZE */
+    private static final class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient int[] index;
+        private final transient int[] buffer;
+        private final int from;
+        private final int to;
+        private final transient IndexOrder order;
+
+        SortTask(int[] index, int[] buffer, int from, int to, IndexOrder order) {
+            this.index = index;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.order = order;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_SORT_SIZE) {
+                mergeSort(index, buffer, from, to, order);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SortTask(index, buffer, from, middle, order),
+                    new SortTask(index, buffer, middle, to, order));
+            mergeHalves(index, buffer, from, middle, to, order);
+        }
+    }
+
+    private static void mergeSort(int[] index, int[] buffer, int from, int to, IndexOrder order) {
+        if (to - from < 2) {
+            return;
+        }
+        if (to - from <= 16) {
+            for (int i = from + 1; i < to; i++) {
+                int value = index[i];
+                int j = i - 1;
+                while ((j >= from) && (order.compare(index[j], value) > 0)) {
+                    index[j + 1] = index[j];
+                    j--;
+                }
+                index[j + 1] = value;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(index, buffer, from, middle, order);
+        mergeSort(index, buffer, middle, to, order);
+        mergeHalves(index, buffer, from, middle, to, order);
+    }
+
+    private static void mergeHalves(int[] index, int[] buffer, int from, int middle, int to, IndexOrder order) {
+        if (order.compare(index[middle - 1], index[middle]) <= 0) {
+            return;
+        }
+        System.arraycopy(index, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if ((left < middle) && ((right >= to) || (order.compare(buffer[left], buffer[right]) <= 0))) {
+                index[i] = buffer[left++];
+            } else {
+                index[i] = buffer[right++];
+            }
+        }
+    }
+}
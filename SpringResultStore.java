@@ -0,0 +1,394 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * ME 35401 - Spring Calculator (Result Store)
+ *
+ * A fixed-width binary file of evaluated designs, for sweeps and batches too large to keep as text. The file starts
+ * with a header naming each column and its width, followed by blocks of BLOCK_ROWS rows. Within a block each column
+ * is stored contiguously (so a scan of one column reads one run of memory), and a block's first 8 bytes hold its row
+ * count, written when the block is sealed.
+ *
+ * Writing threads each take their own Appender, which claims whole blocks from a shared counter and fills them
+ * through a memory-mapped buffer, so threads never wait on each other. Rows from different threads are interleaved
+ * by block and not in any particular order. Reading maps the file a window of blocks at a time and reads the columns
+ * in place, so files larger than memory can be filtered and aggregated without creating an object per row.
+ *
+ * Usage: java SpringResultStore results.spr [minFactorOfSafety=value]
+ *
+ */
+
+public class SpringResultStore {
+    private static final int MAGIC = 0x53505253;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4096;
+    private static final int BLOCK_ROWS = 16384;
+    private static final int BLOCK_HEADER_BYTES = 8;
+    private static final long MAX_WINDOW_BYTES = 1L << 30;
+
+    private static final double[] reportedPercentiles = {1, 5, 50, 95, 99};
+
+    /* Every stored column, in file order, with its width in bytes */
+    public enum Column {
+        END_TYPE(1),
+        MATERIAL(1),
+        PEENED(1),
+        CYCLIC(1),
+        WIRE_DIAMETER(8),
+        OUTER_DIAMETER(8),
+        FREE_LENGTH(8),
+        SOLID_LENGTH(8),
+        MIN_FORCE(8),
+        MAX_FORCE(8),
+        ULTIMATE_TENSILE_STRENGTH(8),
+        YIELD_STRENGTH(8),
+        YIELD_STRENGTH_SHEAR(8),
+        E(8),
+        G(8),
+        TOTAL_COILS(8),
+        ACTIVE_COILS(8),
+        PITCH(8),
+        SPRING_RATE(8),
+        FORCE_TO_SOLID(8),
+        FACTOR_OF_SAFETY_AT_FORCE_TO_SOLID(8),
+        FACTOR_OF_SAFETY(8);
+
+        public final int width;
+
+        // Byte offset of the column from the start of a block
+        final int offset;
+
+        Column(int width) {
+            this.width = width;
+            this.offset = Offsets.next;
+            Offsets.next += width * BLOCK_ROWS;
+        }
+
+        private static final class Offsets {
+            private static int next = BLOCK_HEADER_BYTES;
+        }
+    }
+
+    private static final Column[] columns = Column.values();
+    private static final int BLOCK_BYTES = Column.Offsets.next;
+
+    private static final SpringCalculator.Material[] materials = SpringCalculator.Material.values();
+    private static final SpringCalculator.EndType[] endTypes = SpringCalculator.EndType.values();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java SpringResultStore results.spr [minFactorOfSafety=value]");
+            System.exit(1);
+        }
+        double minFactorOfSafety = Double.NEGATIVE_INFINITY;
+        for (int i = 1; i < args.length; i++) {
+            String[] pair = args[i].split("=", 2);
+            if (pair[0].equals("minFactorOfSafety")) {
+                minFactorOfSafety = Double.parseDouble(pair[1]);
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        double threshold = minFactorOfSafety;
+        long startTime = System.nanoTime();
+        Map<SpringCalculator.Material, SpringHistogram> histograms;
+        try (Reader reader = new Reader(Path.of(args[0]))) {
+            histograms = reader.factorOfSafetyByMaterial(
+                    (block, row) -> block.getDouble(Column.FACTOR_OF_SAFETY, row) >= threshold);
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        StringBuilder header = new StringBuilder("material,count,min");
+        for (double percentile : reportedPercentiles) {
+            header.append(",p").append(percentile);
+        }
+        System.out.println(header.append(",max"));
+        long rows = 0;
+        for (Map.Entry<SpringCalculator.Material, SpringHistogram> entry : histograms.entrySet()) {
+            SpringHistogram histogram = entry.getValue();
+            StringBuilder builder = new StringBuilder().append('"').append(entry.getKey()).append('"').append(',')
+                    .append(histogram.count()).append(',').append(histogram.min());
+            for (double percentile : reportedPercentiles) {
+                builder.append(',').append(histogram.percentile(percentile));
+            }
+            System.out.println(builder.append(',').append(histogram.max()));
+            rows += histogram.count();
+        }
+        System.err.printf("Aggregated %d matching designs in %.3f s%n", rows, seconds);
+    }
+
+    /* Creates the file (replacing any existing one) and hands out appenders, one per writing thread */
+    public static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final AtomicLong nextBlock = new AtomicLong();
+        private final ConcurrentLinkedQueue<Appender> appenders = new ConcurrentLinkedQueue<>();
+        private final ThreadLocal<Appender> threadAppenders = ThreadLocal.withInitial(this::appender);
+
+        public Writer(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        /* A new appender, to be used by one thread at a time */
+        public Appender appender() {
+            Appender appender = new Appender(this);
+            appenders.add(appender);
+            return appender;
+        }
+
+        /* The calling thread's own appender */
+        public Appender threadAppender() {
+            return threadAppenders.get();
+        }
+
+        /* Seals every appender's last block and writes the header; all appending must have finished */
+        @Override
+        public void close() throws IOException {
+            try {
+                for (Appender appender : appenders) {
+                    appender.seal();
+                }
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(HEADER_BYTES).putInt(BLOCK_ROWS).putInt(BLOCK_BYTES)
+                        .putLong(nextBlock.get()).putInt(columns.length);
+                for (Column column : columns) {
+                    byte[] name = column.name().getBytes(StandardCharsets.US_ASCII);
+                    header.put((byte) column.width).put((byte) name.length).put(name).putInt(column.offset);
+                }
+                header.flip();
+                long position = 0;
+                while (header.hasRemaining()) {
+                    position += channel.write(header, position);
+                }
+                channel.force(true);
+            } finally {
+                channel.close();
+            }
+        }
+
+        /* Maps the next unclaimed block; the file grows as blocks are mapped */
+        private MappedByteBuffer claimBlock() throws IOException {
+            long block = nextBlock.getAndIncrement();
+            return channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + (block * BLOCK_BYTES), BLOCK_BYTES);
+        }
+    }
+
+    /* Appends rows to blocks it owns; not thread-safe */
+    public static final class Appender {
+        private final Writer writer;
+        private MappedByteBuffer block;
+        private int rows;
+
+        private Appender(Writer writer) {
+            this.writer = writer;
+        }
+
+        public void append(SpringCalculator.Material material, SpringCalculator.EndType endType, boolean peened,
+                           double wireDiameter, double outerDiameter, double freeLength, double solidLength,
+                           double minForce, double maxForce, SpringCalculator.Evaluation evaluation)
+                throws IOException {
+            if (block == null) {
+                block = writer.claimBlock();
+                block.order(ByteOrder.LITTLE_ENDIAN);
+            }
+
+            int row = rows;
+            block.put(Column.END_TYPE.offset + row, (byte) endType.ordinal());
+            block.put(Column.MATERIAL.offset + row, (byte) material.ordinal());
+            block.put(Column.PEENED.offset + row, (byte) (peened ? 1 : 0));
+            block.put(Column.CYCLIC.offset + row, (byte) (evaluation.cyclic ? 1 : 0));
+            put(Column.WIRE_DIAMETER, row, wireDiameter);
+            put(Column.OUTER_DIAMETER, row, outerDiameter);
+            put(Column.FREE_LENGTH, row, freeLength);
+            put(Column.SOLID_LENGTH, row, solidLength);
+            put(Column.MIN_FORCE, row, minForce);
+            put(Column.MAX_FORCE, row, maxForce);
+            put(Column.ULTIMATE_TENSILE_STRENGTH, row, evaluation.ultimateTensileStrength);
+            put(Column.YIELD_STRENGTH, row, evaluation.yieldStrength);
+            put(Column.YIELD_STRENGTH_SHEAR, row, evaluation.yieldStrengthShear);
+            put(Column.E, row, evaluation.E);
+            put(Column.G, row, evaluation.G);
+            put(Column.TOTAL_COILS, row, evaluation.totalCoils);
+            put(Column.ACTIVE_COILS, row, evaluation.activeCoils);
+            put(Column.PITCH, row, evaluation.pitch);
+            put(Column.SPRING_RATE, row, evaluation.springRate);
+            put(Column.FORCE_TO_SOLID, row, evaluation.forceToSolid);
+            put(Column.FACTOR_OF_SAFETY_AT_FORCE_TO_SOLID, row, evaluation.factorOfSafetyAtForceToSolid);
+            put(Column.FACTOR_OF_SAFETY, row, evaluation.factorOfSafety);
+
+            if (++rows == BLOCK_ROWS) {
+                seal();
+            }
+        }
+
+        private void put(Column column, int row, double value) {
+            block.putDouble(column.offset + (row * Double.BYTES), value);
+        }
+
+        /* Writes the block's row count, marking it complete; unsealed blocks read as empty */
+        private void seal() {
+            if (block != null) {
+                block.putLong(0, rows);
+                block = null;
+                rows = 0;
+            }
+        }
+    }
+
+    /* Read-only view of one block's columns */
+    public static final class Block {
+        private final ByteBuffer buffer;
+        private final int start;
+        private final int rows;
+
+        Block(ByteBuffer buffer, int start) {
+            this.buffer = buffer;
+            this.start = start;
+            this.rows = (int) buffer.getLong(start);
+        }
+
+        public int rows() {
+            return rows;
+        }
+
+        public double getDouble(Column column, int row) {
+            return buffer.getDouble(start + column.offset + (row * Double.BYTES));
+        }
+
+        public SpringCalculator.Material material(int row) {
+            return materials[buffer.get(start + Column.MATERIAL.offset + row)];
+        }
+
+        public SpringCalculator.EndType endType(int row) {
+            return endTypes[buffer.get(start + Column.END_TYPE.offset + row)];
+        }
+
+        public boolean peened(int row) {
+            return buffer.get(start + Column.PEENED.offset + row) != 0;
+        }
+
+        public boolean cyclic(int row) {
+            return buffer.get(start + Column.CYCLIC.offset + row) != 0;
+        }
+    }
+
+    public interface RowFilter {
+        boolean test(Block block, int row);
+    }
+
+    public static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final long blockCount;
+
+        public Reader(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && (channel.read(header) >= 0)) {
+                // Keep reading until the header is complete or the file ends
+            }
+            header.flip();
+            if ((header.remaining() < 32) || (header.getInt() != MAGIC) || (header.getInt() != VERSION)
+                    || (header.getInt() != HEADER_BYTES) || (header.getInt() != BLOCK_ROWS)
+                    || (header.getInt() != BLOCK_BYTES)) {
+                channel.close();
+                throw new IOException("Not a spring result store with this layout: " + path);
+            }
+            blockCount = header.getLong();
+        }
+
+        /* Number of rows in sealed blocks */
+        public long rows() throws IOException {
+            long[] rows = new long[1];
+            forEachBlock(block -> rows[0] += block.rows());
+            return rows[0];
+        }
+
+        /* Visits every block in file order, mapping a window of blocks at a time */
+        public void forEachBlock(Consumer<Block> visitor) throws IOException {
+            long blocksPerWindow = Math.max(1, MAX_WINDOW_BYTES / BLOCK_BYTES);
+            for (long first = 0; first < blockCount; first += blocksPerWindow) {
+                int blocks = (int) Math.min(blocksPerWindow, blockCount - first);
+                ByteBuffer window = map(first, blocks);
+                for (int i = 0; i < blocks; i++) {
+                    visitor.accept(new Block(window, i * BLOCK_BYTES));
+                }
+            }
+        }
+
+        /* Distribution of the factor of safety for the load, per material, over the rows passing the filter */
+        public Map<SpringCalculator.Material, SpringHistogram> factorOfSafetyByMaterial(RowFilter filter)
+                throws IOException {
+            List<SpringHistogram> totals = newHistograms();
+            long blocksPerWindow = Math.max(1, MAX_WINDOW_BYTES / BLOCK_BYTES);
+            for (long first = 0; first < blockCount; first += blocksPerWindow) {
+                int blocks = (int) Math.min(blocksPerWindow, blockCount - first);
+                ByteBuffer window = map(first, blocks);
+
+                // Blocks of a window are aggregated in parallel, each thread into its own histograms
+                List<SpringHistogram> windowTotals = IntStream.range(0, blocks).parallel().collect(
+                        SpringResultStore::newHistograms,
+                        (histograms, i) -> {
+                            Block block = new Block(window.duplicate().order(ByteOrder.LITTLE_ENDIAN),
+                                    i * BLOCK_BYTES);
+                            for (int row = 0; row < block.rows(); row++) {
+                                if (filter.test(block, row)) {
+                                    histograms.get(block.buffer.get(block.start + Column.MATERIAL.offset + row))
+                                            .record(block.getDouble(Column.FACTOR_OF_SAFETY, row));
+                                }
+                            }
+                        },
+                        SpringResultStore::merge);
+                merge(totals, windowTotals);
+            }
+
+            Map<SpringCalculator.Material, SpringHistogram> result = new EnumMap<>(SpringCalculator.Material.class);
+            for (int i = 0; i < materials.length; i++) {
+                if (totals.get(i).count() > 0) {
+                    result.put(materials[i], totals.get(i));
+                }
+            }
+            return result;
+        }
+
+        private ByteBuffer map(long firstBlock, int blocks) throws IOException {
+            return channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + (firstBlock * BLOCK_BYTES),
+                    (long) blocks * BLOCK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static List<SpringHistogram> newHistograms() {
+        List<SpringHistogram> histograms = new ArrayList<>(materials.length);
+        for (int i = 0; i < materials.length; i++) {
+            histograms.add(new SpringHistogram());
+        }
+        return histograms;
+    }
+
+    private static void merge(List<SpringHistogram> into, List<SpringHistogram> from) {
+        for (int i = 0; i < into.size(); i++) {
+            into.get(i).merge(from.get(i));
+        }
+    }
+}
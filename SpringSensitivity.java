@@ -0,0 +1,255 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * ME 35401 - Spring Calculator (Sensitivity Analysis)
+ *
+ * This program calculates how much the spring rate, force to solid, factor of safety at solid length, and factor of
+ * safety for the load change with each continuous input: wire diameter, outer diameter, free length, solid length,
+ * min force, and max force. It also reports the change in spring rate per active coil. Derivatives are exact, not
+ * finite differences. The design is evaluated once, and each input is then pushed through the same formulas in
+ * forward mode with the chain rule, reusing every intermediate value. Within a band, Sut = A / d^m gives
+ * dSut/dd = -m Sut / d, and E and G are constant. At a band boundary the one-sided derivative from below is given.
+ *
+ * Designs are read in the batch mode format and analyzed in parallel chunks. Each input row is echoed, followed by
+ * springRate, forceToSolid, factorOfSafetyAtForceToSolid, loadCase, factorOfSafety,
+ * dSpringRate/dActiveCoils, and then d(output)/d(input) for every output and input.
+ *
+ * Usage: java SpringSensitivity input.csv output.csv
+ *
+ */
+
+public class SpringSensitivity {
+    private static final int CHUNK_SIZE = 65536;
+
+    /* Continuous inputs, in the order of the derivative arrays */
+    public enum Input {
+        WIRE_DIAMETER,
+        OUTER_DIAMETER,
+        FREE_LENGTH,
+        SOLID_LENGTH,
+        MIN_FORCE,
+        MAX_FORCE;
+
+        // Column name suffix, e.g. WireDiameter
+        final String columnName;
+
+        Input() {
+            StringBuilder builder = new StringBuilder();
+            for (String word : name().split("_")) {
+                builder.append(word.charAt(0)).append(word.substring(1).toLowerCase(Locale.ROOT));
+            }
+            columnName = builder.toString();
+        }
+    }
+
+    private static final Input[] inputs = Input.values();
+
+    /* Reusable holder for one design's values and their derivatives, indexed by Input ordinal */
+    public static final class Sensitivity {
+        public final SpringCalculator.Evaluation evaluation = new SpringCalculator.Evaluation();
+        public final double[] springRate = new double[inputs.length];
+        public final double[] forceToSolid = new double[inputs.length];
+        public final double[] factorOfSafetyAtForceToSolid = new double[inputs.length];
+        public final double[] factorOfSafety = new double[inputs.length];
+        public double springRateByActiveCoils;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java SpringSensitivity <input.csv|input.tsv> <output.csv|output.tsv>");
+            System.exit(1);
+        }
+        Path inputPath = Path.of(args[0]);
+        Path outputPath = Path.of(args[1]);
+        char inputDelimiter = SpringBatchCalculator.delimiterFor(inputPath);
+        char outputDelimiter = SpringBatchCalculator.delimiterFor(outputPath);
+
+        long rows = 0;
+        long startTime = System.nanoTime();
+        try (BufferedReader in = Files.newBufferedReader(inputPath, StandardCharsets.UTF_8);
+             BufferedWriter out = Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8)) {
+            String line = in.readLine();
+            if (line != null && SpringBatchCalculator.isHeader(line, inputDelimiter)) {
+                out.write(line.replace(inputDelimiter, outputDelimiter));
+                for (String column : outputColumns()) {
+                    out.write(outputDelimiter);
+                    out.write(column);
+                }
+                out.write('\n');
+                line = in.readLine();
+            }
+
+            String[] chunk = new String[CHUNK_SIZE];
+            String[] results = new String[CHUNK_SIZE];
+            while (line != null) {
+                int size = 0;
+                while (line != null && size < CHUNK_SIZE) {
+                    if (!line.isBlank()) {
+                        chunk[size++] = line;
+                    }
+                    line = in.readLine();
+                }
+                ThreadLocal<Sensitivity> sensitivities = ThreadLocal.withInitial(Sensitivity::new);
+                IntStream.range(0, size).parallel().forEach(i -> results[i] =
+                        analyzeLine(chunk[i], inputDelimiter, outputDelimiter, sensitivities.get()));
+                for (int i = 0; i < size; i++) {
+                    out.write(results[i]);
+                }
+                rows += size;
+            }
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        System.err.printf("Analyzed %d designs in %.3f s (%.0f rows/sec)%n", rows, seconds, rows / seconds);
+    }
+
+    private static String[] outputColumns() {
+        String[] outputs = {"SpringRate", "ForceToSolid", "FactorOfSafetyAtForceToSolid", "FactorOfSafety"};
+        String[] columns = new String[6 + (outputs.length * inputs.length)];
+        columns[0] = "springRate";
+        columns[1] = "forceToSolid";
+        columns[2] = "factorOfSafetyAtForceToSolid";
+        columns[3] = "loadCase";
+        columns[4] = "factorOfSafety";
+        columns[5] = "dSpringRate/dActiveCoils";
+        int column = 6;
+        for (String output : outputs) {
+            for (Input input : inputs) {
+                columns[column++] = "d" + output + "/d" + input.columnName;
+            }
+        }
+        return columns;
+    }
+
+    /* Analyzes one batch mode row, echoing the input fields followed by the values and derivatives */
+    private static String analyzeLine(String line, char inputDelimiter, char outputDelimiter,
+                                      Sensitivity result) {
+        String[] fields = line.split(String.valueOf(inputDelimiter), -1);
+        StringBuilder builder = new StringBuilder(1024);
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = fields[i].trim();
+            if (i > 0) {
+                builder.append(outputDelimiter);
+            }
+            builder.append(fields[i]);
+        }
+
+        SpringCalculator.EndType endType = (fields.length >= 9)
+                ? SpringCalculator.EndType.fromDisplayName(fields[0]) : null;
+        SpringCalculator.Material material = (fields.length >= 9)
+                ? SpringCalculator.Material.fromDisplayName(fields[1]) : null;
+        try {
+            if ((endType == null) || (material == null)) {
+                throw new IllegalArgumentException("Invalid design: " + line);
+            }
+            analyze(material, endType, SpringBatchCalculator.parsePeenType(fields[2]), Double.parseDouble(fields[3]),
+                    Double.parseDouble(fields[4]), Double.parseDouble(fields[5]), Double.parseDouble(fields[6]),
+                    Double.parseDouble(fields[7]), Double.parseDouble(fields[8]), result);
+        } catch (IllegalArgumentException e) {
+            for (int i = 0; i < 6 + (4 * inputs.length); i++) {
+                builder.append(outputDelimiter).append((i == 3) ? "invalid" : "");
+            }
+            return builder.append('\n').toString();
+        }
+
+        SpringCalculator.Evaluation evaluation = result.evaluation;
+        builder.append(outputDelimiter).append(evaluation.springRate)
+                .append(outputDelimiter).append(evaluation.forceToSolid)
+                .append(outputDelimiter).append(evaluation.factorOfSafetyAtForceToSolid)
+                .append(outputDelimiter).append(evaluation.cyclic ? "cyclic" : "static")
+                .append(outputDelimiter).append(evaluation.factorOfSafety)
+                .append(outputDelimiter).append(result.springRateByActiveCoils);
+        for (double[] derivatives : new double[][] {result.springRate, result.forceToSolid,
+                result.factorOfSafetyAtForceToSolid, result.factorOfSafety}) {
+            for (double derivative : derivatives) {
+                builder.append(outputDelimiter).append(derivative);
+            }
+        }
+        return builder.append('\n').toString();
+    }
+
+    /*
+     * Evaluates a design and the derivatives of its spring rate, force to solid, and factors of safety with respect
+     * to every Input into the caller-owned result. The load case is chosen from the forces as in evaluate and held
+     * fixed, so the derivatives with respect to the forces are those of the formula that applies.
+     */
+    public static Sensitivity analyze(SpringCalculator.Material material, SpringCalculator.EndType endType,
+                                      boolean peened, double wireDiameter, double outerDiameter, double freeLength,
+                                      double solidLength, double minForce, double maxForce, Sensitivity result) {
+        SpringCalculator.LoadCase loadCase = SpringCalculator.LoadCase.of(minForce, maxForce);
+        SpringCalculator.Evaluation e = SpringCalculator.evaluate(loadCase, material, endType, peened, wireDiameter,
+                outerDiameter, freeLength, solidLength, minForce, maxForce, result.evaluation);
+
+        double d = wireDiameter;
+        double D = outerDiameter - wireDiameter;
+        double Na = e.activeCoils;
+        double k = e.springRate;
+        double deflection = freeLength - solidLength;
+        double K = e.bergstrasserFactor;
+        double dKdC = -20 / (((4 * e.springIndex) - 3) * ((4 * e.springIndex) - 3));
+        double shearStressPerForce = (K * 8 * D) / (Math.PI * d * d * d);
+        double dSutdd = (-material.ultimateTensileStrengthExponent(d) * e.ultimateTensileStrength) / d;
+        double Ssu = 0.67 * e.ultimateTensileStrength;
+        double SseNumerator = peened ? 57.5 * 1000 : 35 * 1000;
+        double SseOffset = peened ? 77.5 * 1000 : 55 * 1000;
+        double SseDenominator = 1 - (SseOffset / Ssu);
+        double Sse = SseNumerator / SseDenominator;
+        double dSsedSsu = -(SseNumerator * SseOffset) / (Ssu * Ssu * SseDenominator * SseDenominator);
+
+        result.springRateByActiveCoils = -k / Na;
+
+        // One tangent pass per input, seeding that input's derivative with 1
+        for (Input input : inputs) {
+            double dd = (input == Input.WIRE_DIAMETER) ? 1 : 0;
+            double dOD = (input == Input.OUTER_DIAMETER) ? 1 : 0;
+            double dLo = (input == Input.FREE_LENGTH) ? 1 : 0;
+            double dLs = (input == Input.SOLID_LENGTH) ? 1 : 0;
+            double dFmin = (input == Input.MIN_FORCE) ? 1 : 0;
+            double dFmax = (input == Input.MAX_FORCE) ? 1 : 0;
+
+            double dD = dOD - dd;
+            double dNa = ((-solidLength * dd) / (d * d)) + (dLs / d);
+            double dk = k * (((4 * dd) / d) - ((3 * dD) / D) - (dNa / Na));
+            double dF = (dk * deflection) + (k * (dLo - dLs));
+            double dC = (dD / d) - ((D * dd) / (d * d));
+            double dK = dKdC * dC;
+            double dShearStressPerForce = shearStressPerForce * ((dK / K) + (dD / D) - ((3 * dd) / d));
+            double dSut = dSutdd * dd;
+            double dSys = material.shearYieldRatio * dSut;
+
+            double dShearStressAtForceToSolid = (dShearStressPerForce * e.forceToSolid) + (shearStressPerForce * dF);
+            double dnSolid = (dSys - (e.factorOfSafetyAtForceToSolid * dShearStressAtForceToSolid))
+                    / e.shearStressAtForceToSolid;
+
+            double dn;
+            if (loadCase == SpringCalculator.LoadCase.STATIC) {
+                double dShearStress = (dShearStressPerForce * minForce) + (shearStressPerForce * dFmin);
+                dn = (dSys - (e.factorOfSafety * dShearStress)) / e.shearStressMean;
+            } else {
+                double dShearStressAmplitude = (dShearStressPerForce * ((maxForce - minForce) / 2))
+                        + (shearStressPerForce * ((dFmax - dFmin) / 2));
+                double dShearStressMean = (dShearStressPerForce * ((maxForce + minForce) / 2))
+                        + (shearStressPerForce * ((dFmax + dFmin) / 2));
+                double dSsu = 0.67 * dSut;
+                double dSse = dSsedSsu * dSsu;
+                double dGoodman = (dShearStressAmplitude / Sse) - ((e.shearStressAmplitude * dSse) / (Sse * Sse))
+                        + (dShearStressMean / Ssu) - ((e.shearStressMean * dSsu) / (Ssu * Ssu));
+                dn = -e.factorOfSafety * e.factorOfSafety * dGoodman;
+            }
+
+            int i = input.ordinal();
+            result.springRate[i] = dk;
+            result.forceToSolid[i] = dF;
+            result.factorOfSafetyAtForceToSolid[i] = dnSolid;
+            result.factorOfSafety[i] = dn;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,233 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ME 35401 - Spring Calculator (Tolerance Analysis)
+ *
+ * This program estimates how manufacturing tolerances on wire diameter, outer diameter, and free length spread the
+ * spring rate, force to solid, and factors of safety of a design. Each variant draws the three dimensions from
+ * normal distributions whose standard deviation is a third of the tolerance, keeps the nominal number of coils (so
+ * the solid length follows the wire diameter), and is run through SpringCalculator.evaluate. Samples are split
+ * across cores with fork-join, each task drawing from its own split of a SplittableRandom and recording into its own
+ * histograms, which are merged at the end instead of storing samples.
+ *
+ * Usage: java SpringToleranceAnalysis material=... endType=... peened=true|false wireDiameter=value
+ *        outerDiameter=value freeLength=value solidLength=value minForce=value maxForce=value
+ *        [wireTolerance=value] [outerTolerance=value] [freeTolerance=value] [samples=1000000] [seed=value]
+ *
+ */
+
+public class SpringToleranceAnalysis {
+    private static final int SAMPLES_PER_TASK = 1 << 16;
+
+    private static final double[] reportedPercentiles = {0.1, 1, 5, 50, 95, 99, 99.9};
+
+    /* Distributions of every output over all samples */
+    public static final class Result {
+        public final SpringHistogram springRate = new SpringHistogram();
+        public final SpringHistogram forceToSolid = new SpringHistogram();
+        public final SpringHistogram factorOfSafetyAtForceToSolid = new SpringHistogram();
+        public final SpringHistogram factorOfSafety = new SpringHistogram();
+        public long factorOfSafetyAtForceToSolidBelowOne;
+        public long factorOfSafetyBelowOne;
+        public boolean cyclic;
+
+        void merge(Result other) {
+            factorOfSafetyAtForceToSolidBelowOne += other.factorOfSafetyAtForceToSolidBelowOne;
+            factorOfSafetyBelowOne += other.factorOfSafetyBelowOne;
+            springRate.merge(other.springRate);
+            forceToSolid.merge(other.forceToSolid);
+            factorOfSafetyAtForceToSolid.merge(other.factorOfSafetyAtForceToSolid);
+            factorOfSafety.merge(other.factorOfSafety);
+        }
+
+        public long samples() {
+            return springRate.count();
+        }
+
+        /* Probability that the factor of safety at solid length is below 1 */
+        public double probabilityOfYieldingAtSolidLength() {
+            return (double) factorOfSafetyAtForceToSolidBelowOne / samples();
+        }
+
+        /* Probability that the factor of safety for the load is below 1 */
+        public double probabilityOfFailure() {
+            return (double) factorOfSafetyBelowOne / samples();
+        }
+    }
+
+    private final SpringCalculator.Material material;
+    private final SpringCalculator.EndType endType;
+    private final SpringCalculator.LoadCase loadCase;
+    private final boolean peened;
+    private final double wireDiameter;
+    private final double outerDiameter;
+    private final double freeLength;
+    private final double activeCoils;
+    private final double minForce;
+    private final double maxForce;
+    private final double wireDeviation;
+    private final double outerDeviation;
+    private final double freeDeviation;
+
+    /* Tolerances are +/- values (in), taken as three standard deviations */
+    public SpringToleranceAnalysis(SpringCalculator.Material material, SpringCalculator.EndType endType,
+                                   boolean peened, double wireDiameter, double outerDiameter, double freeLength,
+                                   double solidLength, double minForce, double maxForce, double wireTolerance,
+                                   double outerTolerance, double freeTolerance) {
+        this.material = material;
+        this.endType = endType;
+        this.loadCase = SpringCalculator.LoadCase.of(minForce, maxForce);
+        this.peened = peened;
+        this.wireDiameter = wireDiameter;
+        this.outerDiameter = outerDiameter;
+        this.freeLength = freeLength;
+        this.activeCoils = endType.activeCoils(endType.totalCoils(wireDiameter, solidLength));
+        this.minForce = minForce;
+        this.maxForce = maxForce;
+        this.wireDeviation = wireTolerance / 3;
+        this.outerDeviation = outerTolerance / 3;
+        this.freeDeviation = freeTolerance / 3;
+    }
+
+    public static void main(String[] args) {
+        SpringCalculator.Material material = null;
+        SpringCalculator.EndType endType = null;
+        boolean peened = false;
+        double wireDiameter = Double.NaN, outerDiameter = Double.NaN, freeLength = Double.NaN;
+        double solidLength = Double.NaN, minForce = Double.NaN, maxForce = Double.NaN;
+        double wireTolerance = 0, outerTolerance = 0, freeTolerance = 0;
+        long samples = 1_000_000;
+        long seed = System.nanoTime();
+
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            switch (pair[0]) {
+                case "material" -> material = SpringCalculator.Material.fromDisplayName(pair[1]);
+                case "endType" -> endType = SpringCalculator.EndType.fromDisplayName(pair[1]);
+                case "peened" -> peened = SpringBatchCalculator.parsePeenType(pair[1]);
+                case "wireDiameter" -> wireDiameter = Double.parseDouble(pair[1]);
+                case "outerDiameter" -> outerDiameter = Double.parseDouble(pair[1]);
+                case "freeLength" -> freeLength = Double.parseDouble(pair[1]);
+                case "solidLength" -> solidLength = Double.parseDouble(pair[1]);
+                case "minForce" -> minForce = Double.parseDouble(pair[1]);
+                case "maxForce" -> maxForce = Double.parseDouble(pair[1]);
+                case "wireTolerance" -> wireTolerance = Double.parseDouble(pair[1]);
+                case "outerTolerance" -> outerTolerance = Double.parseDouble(pair[1]);
+                case "freeTolerance" -> freeTolerance = Double.parseDouble(pair[1]);
+                case "samples" -> samples = Long.parseLong(pair[1]);
+                case "seed" -> seed = Long.parseLong(pair[1]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        if (material == null || endType == null || Double.isNaN(wireDiameter) || Double.isNaN(outerDiameter)
+                || Double.isNaN(freeLength) || Double.isNaN(solidLength) || Double.isNaN(minForce)
+                || Double.isNaN(maxForce)) {
+            System.err.println("Usage: java SpringToleranceAnalysis material=... endType=... peened=true|false "
+                    + "wireDiameter=value outerDiameter=value freeLength=value solidLength=value minForce=value "
+                    + "maxForce=value [wireTolerance=value] [outerTolerance=value] [freeTolerance=value] "
+                    + "[samples=1000000] [seed=value]");
+            System.exit(1);
+        }
+
+        SpringToleranceAnalysis analysis = new SpringToleranceAnalysis(material, endType, peened, wireDiameter,
+                outerDiameter, freeLength, solidLength, minForce, maxForce, wireTolerance, outerTolerance,
+                freeTolerance);
+        long startTime = System.nanoTime();
+        Result result = analysis.run(samples, seed);
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        StringBuilder header = new StringBuilder("quantity,mean,min");
+        for (double percentile : reportedPercentiles) {
+            header.append(",p").append(percentile);
+        }
+        System.out.println(header.append(",max,P(<1)"));
+        print("springRate", result.springRate, Double.NaN);
+        print("forceToSolid", result.forceToSolid, Double.NaN);
+        print("factorOfSafetyAtForceToSolid", result.factorOfSafetyAtForceToSolid,
+                result.probabilityOfYieldingAtSolidLength());
+        print(result.cyclic ? "fatigueFactorOfSafety" : "staticFactorOfSafety", result.factorOfSafety,
+                result.probabilityOfFailure());
+        System.err.printf("Evaluated %d samples in %.3f s (%.0f samples/sec)%n", result.samples(), seconds,
+                result.samples() / seconds);
+    }
+
+    private static void print(String name, SpringHistogram histogram, double probabilityBelowOne) {
+        StringBuilder builder = new StringBuilder(name).append(',').append(histogram.mean()).append(',')
+                .append(histogram.min());
+        for (double percentile : reportedPercentiles) {
+            builder.append(',').append(histogram.percentile(percentile));
+        }
+        builder.append(',').append(histogram.max()).append(',');
+        if (!Double.isNaN(probabilityBelowOne)) {
+            builder.append(probabilityBelowOne);
+        }
+        System.out.println(builder);
+    }
+
+    /* Samples the design the given number of times in the common fork-join pool */
+    public Result run(long samples, long seed) {
+        return run(samples, seed, ForkJoinPool.commonPool());
+    }
+
+    public Result run(long samples, long seed, ForkJoinPool pool) {
+        Result result = pool.invoke(new SampleTask(0, samples, new SplittableRandom(seed)));
+        result.cyclic = loadCase == SpringCalculator.LoadCase.CYCLIC;
+        return result;
+    }
+
+    private final class SampleTask extends RecursiveTask<Result> {
+        private static final long serialVersionUID = 1L;
+
+        private final long start;
+        private final long end;
+        private final transient SplittableRandom random;
+
+        SampleTask(long start, long end, SplittableRandom random) {
+            this.start = start;
+            this.end = end;
+            this.random = random;
+        }
+
+        @Override
+        protected Result compute() {
+            if (end - start <= SAMPLES_PER_TASK) {
+                return sample(end - start, random);
+            }
+
+            long middle = (start + end) >>> 1;
+            SampleTask left = new SampleTask(start, middle, random.split());
+            left.fork();
+            Result result = new SampleTask(middle, end, random).compute();
+            result.merge(left.join());
+            return result;
+        }
+    }
+
+    private Result sample(long samples, SplittableRandom random) {
+        Result result = new Result();
+        SpringCalculator.Evaluation evaluation = new SpringCalculator.Evaluation();
+
+        for (long i = 0; i < samples; i++) {
+            double sampledWireDiameter = wireDiameter + (wireDeviation * random.nextGaussian());
+            double sampledOuterDiameter = outerDiameter + (outerDeviation * random.nextGaussian());
+            double sampledFreeLength = freeLength + (freeDeviation * random.nextGaussian());
+            double sampledSolidLength = endType.solidLength(sampledWireDiameter, activeCoils);
+
+            SpringCalculator.evaluate(loadCase, material, endType, peened, sampledWireDiameter,
+                    sampledOuterDiameter, sampledFreeLength, sampledSolidLength, minForce, maxForce, evaluation);
+            result.springRate.record(evaluation.springRate);
+            result.forceToSolid.record(evaluation.forceToSolid);
+            result.factorOfSafetyAtForceToSolid.record(evaluation.factorOfSafetyAtForceToSolid);
+            result.factorOfSafety.record(evaluation.factorOfSafety);
+            if (evaluation.factorOfSafetyAtForceToSolid < 1) {
+                result.factorOfSafetyAtForceToSolidBelowOne++;
+            }
+            if (evaluation.factorOfSafety < 1) {
+                result.factorOfSafetyBelowOne++;
+            }
+        }
+        return result;
+    }
+}